@@ -215,16 +215,25 @@ def get_queue_stats():
             stats = {
                 "total_items": len(queues),
                 "waiting": len([q for q in queues if q.get("status") == "waiting"]),
+                "by_status": {},
                 "by_service_type": {},
-                "by_user": {}
+                "by_user": {},
+                "waiting_by_service": {}
             }
             
             for q in queues:
+                status = q.get("status", "unknown")
+                stats["by_status"][status] = stats["by_status"].get(status, 0) + 1
+                
                 service_type = q.get("serviceType", "unknown")
                 stats["by_service_type"][service_type] = stats["by_service_type"].get(service_type, 0) + 1
                 
                 user_id = str(q.get("user_id", "unknown"))
                 stats["by_user"][user_id] = stats["by_user"].get(user_id, 0) + 1
+
+                if status == "waiting":
+                    service_id = q.get("service_id", "unknown")
+                    stats["waiting_by_service"][service_id] = stats["waiting_by_service"].get(service_id, 0) + 1
             
             print(f"[ADMIN] Generated stats: {stats['total_items']} total items")
             return jsonify(stats), 200
@@ -1,16 +1,55 @@
 import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
 import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Instant;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
 import org.json.JSONArray;
 import org.json.JSONObject;
+import org.json.JSONTokener;
 
 /**
  * QueueFlex Health Monitor Service
  * Monitors all microservices and queue status in real-time
+ *
+ * A single-file program; run from frontend/health-monitor with:
+ *   java -cp json-20240303.jar src/healthMonitorService.java
+ * or from the classes compiled into bin/:
+ *   java -cp bin:json-20240303.jar HealthMonitorService
  */
 public class HealthMonitorService {
     
@@ -19,52 +58,144 @@ public class HealthMonitorService {
     private static final String QUEUE_SERVICE = "http://localhost:4000";
     private static final String ADMIN_SERVICE = "http://localhost:5000";
     
-    // Monitoring configuration
+    // Monitoring configuration; probe cadence adapts (see ProbeCadence), queue metrics refresh at most this often
     private static final int CHECK_INTERVAL_SECONDS = 30;
     private static final int ALERT_THRESHOLD = 3; // Alert after 3 consecutive failures
     
     // Test credentials (create a test user first)
-    private static String authToken = null;
+    private static volatile String authToken = null;
+    private static volatile long authTokenExpiresAt = 0;
     
-    private static int authServiceFailures = 0;
-    private static int queueServiceFailures = 0;
-    private static int adminServiceFailures = 0;
+    // Session handling: token cached on disk, renewed in the background before it expires
+    private static final Path SESSION_FILE = Paths.get(System.getProperty("queueflex.session.dir",
+        Paths.get(System.getProperty("user.home"), ".queueflex", "sessions").toString()), "monitor.session");
+    private static final long SESSION_RETRY_SECONDS = 60;
+    private static final ScheduledExecutorService sessionRenewer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "monitor-session");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    // Consecutive failures per service, updated from the probe threads
+    private static final AtomicInteger authServiceFailures = new AtomicInteger();
+    private static final AtomicInteger queueServiceFailures = new AtomicInteger();
+    private static final AtomicInteger adminServiceFailures = new AtomicInteger();
+    
+    // Probes run concurrently; each gets a hard deadline covering connect, send and read
+    private static final int REQUEST_TIMEOUT_MS = 3000;
+    private static final long PROBE_DEADLINE_MS = Long.getLong("queueflex.monitor.probeDeadlineMs", 5000);
+    private static final ExecutorService probeExecutor = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, "monitor-probe");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final ThreadLocal<Probe> currentProbe = new ThreadLocal<>();
+    
+    // OpenMetrics endpoint for Prometheus and friends; recorded and rendered on the scheduler thread
+    private static final int METRICS_PORT = Integer.getInteger("queueflex.monitor.metricsPort", 9400);
+    private static final MonitorMetrics metrics = new MonitorMetrics();
+    
+    // Response times and failures per service endpoint over 1m/5m/1h, checked against queueflex.slo.* objectives
+    private static final LatencySlo slo = new LatencySlo();
+    
+    // Every sample taken, kept on disk; queueflex.monitor.historyDir= (empty) turns it off. Query with the history command.
+    // Opened in main, so a history query never opens the store for writing.
+    private static TimeSeriesStore history;
+    
+    // Checks run one at a time on the scheduler thread; each schedules the next when it finishes
+    private static final ProbeCadence cadence = new ProbeCadence();
+    private static long lastQueueMetricsAt = 0;
+    
+    // Booking statuses as counted by the queue metrics
+    private static final int WAITING = 0;
+    private static final int IN_PROGRESS = 1;
+    private static final int COMPLETED = 2;
+    private static final int CANCELLED = 3;
+    private static final int OTHER_STATUS = 4;
+    private static final String[] STATUS_CODES = {"waiting", "in-progress", "completed", "cancelled"};
+    
+    // Compact index of bookings (queue_id -> status and service), kept only for servers that send delta cursors
+    private static final Map<String, Booking> queueIndex = new HashMap<>();
+    private static final Map<String, String> serviceIds = new HashMap<>();
+    private static String queueWatermark = null;
+    // Admin stats endpoint: null until tried, false once it turns out not to serve this monitor
+    private static Boolean statsEndpointUsable = null;
+    // The stats request got an answer, just not usable stats; counts as a success for the SLO
+    private static final QueueCounts STATS_UNSUPPORTED = new QueueCounts();
 
     public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("history")) {
+            try {
+                TimeSeriesStore.runCommand(Arrays.copyOfRange(args, 1, args.length));
+            } catch (IOException e) {
+                logError("History query failed: " + e.getMessage());
+                System.exit(1);
+            }
+            return;
+        }
      
         System.out.println("  QueueFlex Health Monitor Service v1.0");
        
         
-        // Try to authenticate
-        authenticateMonitor();
-        
-        // Create scheduled executor
-        ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
+        // Reuse a cached token if still valid, otherwise authenticate
+        if (restoreSession()) {
+            System.out.println(" Reusing saved monitor session\n");
+            scheduleRenewal(true);
+        } else {
+            authenticateMonitor();
+        }
         
-        // Schedule health checks every 30 seconds
-        scheduler.scheduleAtFixedRate(() -> {
+        if (METRICS_PORT > 0) {
             try {
-                performHealthCheck();
-            } catch (Exception e) {
-                logError("Health check failed: " + e.getMessage());
+                metrics.start(METRICS_PORT);
+                System.out.println("✓ Metrics at http://localhost:" + METRICS_PORT + "/metrics");
+            } catch (IOException e) {
+                logError("Could not start metrics endpoint: " + e.getMessage());
             }
-        }, 0, CHECK_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        }
+        
+        history = openHistory();
+
+        // Create scheduled executor; on shutdown the next (delayed) check is dropped, a running one finishes
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1);
+        scheduler.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        
+        // First check at a jittered start, then at an adaptive cadence
+        scheduleHealthCheck(scheduler, cadence.initialDelayMillis());
         
         // Keep the service running
         System.out.println("✓ Monitor started successfully");
-        System.out.println("✓ Health checks running every " + CHECK_INTERVAL_SECONDS + " seconds");
+        System.out.printf("✓ Health checks every %.1f-%d seconds, faster while a service is degraded%n",
+            cadence.minIntervalMillis / 1000.0, cadence.maxIntervalMillis / 1000);
         System.out.println("✓ Press Ctrl+C to stop\n");
         
         // Add shutdown hook
         Runtime.getRuntime().addShutdownHook(new Thread(() -> {
             System.out.println("\n\n Shutting down Health Monitor Service...");
             scheduler.shutdown();
+            probeExecutor.shutdownNow();
+            metrics.stop();
+            if (history != null) {
+                try {
+                    // Let a cycle in progress finish writing before the segment is closed
+                    if (scheduler.awaitTermination(2, TimeUnit.SECONDS)) {
+                        history.close();
+                    } else {
+                        logError("Health check still running; leaving history open");
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (Exception e) {
+                    logError("Could not close history: " + e.getMessage());
+                }
+            }
             System.out.println("✓ Service stopped gracefully");
         }));
     }
     
     private static void authenticateMonitor() {
         System.out.println(" Attempting to authenticate monitor...");
+        boolean renewed = false;
         try {
             // Try to login with test credentials
             JSONObject loginData = new JSONObject();
@@ -75,7 +206,11 @@ public class HealthMonitorService {
             JSONObject jsonResponse = new JSONObject(response);
             
             if (jsonResponse.has("token")) {
-                authToken = jsonResponse.getString("token");
+                String token = jsonResponse.getString("token");
+                authTokenExpiresAt = tokenExpiry(token);
+                authToken = token;
+                saveSession();
+                renewed = true;
                 System.out.println(" Authentication successful\n");
             } else {
                 System.out.println(" Authentication failed - running in limited mode");
@@ -84,22 +219,147 @@ public class HealthMonitorService {
         } catch (Exception e) {
             System.out.println(" Could not authenticate - running in limited mode\n");
         }
+        // Drop a token that has run out so checks fall back to limited mode instead of failing
+        if (authToken != null && System.currentTimeMillis() >= authTokenExpiresAt) {
+            authToken = null;
+        }
+        scheduleRenewal(renewed);
+    }
+    
+    // Re-authenticate at 80% of the token lifetime; retry every minute after a failed attempt
+    private static void scheduleRenewal(boolean renewed) {
+        long delaySeconds = SESSION_RETRY_SECONDS;
+        if (authToken != null) {
+            long remainingSeconds = Math.max(1, (authTokenExpiresAt - System.currentTimeMillis()) / 1000);
+            if (renewed) {
+                delaySeconds = Math.max(SESSION_RETRY_SECONDS, remainingSeconds * 8 / 10);
+            }
+            delaySeconds = Math.min(delaySeconds, remainingSeconds);
+        }
+        sessionRenewer.schedule(HealthMonitorService::authenticateMonitor, delaySeconds, TimeUnit.SECONDS);
+    }
+    
+    // JWT exp claim in millis; one hour if the token doesn't carry one
+    private static long tokenExpiry(String token) {
+        String[] parts = token.split("\\.");
+        if (parts.length >= 2) {
+            try {
+                JSONObject claims = new JSONObject(new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8));
+                if (claims.has("exp")) {
+                    return claims.getLong("exp") * 1000;
+                }
+            } catch (Exception ignored) {
+                // Not a readable JWT
+            }
+        }
+        return System.currentTimeMillis() + 3600_000;
+    }
+    
+    private static boolean restoreSession() {
+        try {
+            if (!Files.isRegularFile(SESSION_FILE)) {
+                return false;
+            }
+            JSONObject json = new JSONObject(Files.readString(SESSION_FILE, StandardCharsets.UTF_8));
+            long expiresAt = json.getLong("expires_at");
+            if (System.currentTimeMillis() >= expiresAt - 30_000) {
+                return false;
+            }
+            authTokenExpiresAt = expiresAt;
+            authToken = json.getString("token");
+            return true;
+        } catch (Exception e) {
+            logError("Ignoring unreadable session file: " + e.getMessage());
+            return false;
+        }
+    }
+    
+    // Owner-only file, written to a temp file first and moved into place
+    private static void saveSession() {
+        try {
+            Files.createDirectories(SESSION_FILE.getParent());
+            Path temp = Files.createTempFile(SESSION_FILE.getParent(), "monitor", ".tmp");
+            if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+                Files.setPosixFilePermissions(temp, PosixFilePermissions.fromString("rw-------"));
+            }
+            JSONObject json = new JSONObject();
+            json.put("token", authToken);
+            json.put("expires_at", authTokenExpiresAt);
+            Files.writeString(temp, json.toString(), StandardCharsets.UTF_8);
+            Files.move(temp, SESSION_FILE, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (Exception e) {
+            logError("Could not save session: " + e.getMessage());
+        }
+    }
+    
+    private static void scheduleHealthCheck(ScheduledExecutorService scheduler, long delayMillis) {
+        try {
+            scheduler.schedule(() -> runHealthCheck(scheduler), delayMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // Shutting down
+        }
+    }
+    
+    // The next check is scheduled only once this one has finished, so an overrunning check never overlaps the next
+    private static void runHealthCheck(ScheduledExecutorService scheduler) {
+        long started = System.nanoTime();
+        boolean healthy = false;
+        try {
+            healthy = performHealthCheck();
+        } catch (Exception e) {
+            logError("Health check failed: " + e.getMessage());
+        }
+        long delayMillis = cadence.nextDelayMillis(healthy, (System.nanoTime() - started) / 1_000_000);
+        System.out.printf(" Next check in %.1fs%s%n%n", delayMillis / 1000.0,
+            cadence.flapping() ? " (flapping)" : healthy ? "" : " (degraded)");
+        scheduleHealthCheck(scheduler, delayMillis);
     }
     
-    private static void performHealthCheck() {
+    // True when every service is up and answering within its latency objective
+    private static boolean performHealthCheck() {
         String timestamp = getCurrentTimestamp();
 
         System.out.println(" Health Check @ " + timestamp);
  
         
-        // Check all services
-        boolean authOk = checkAuthService();
-        boolean queueOk = checkQueueService();
-        boolean adminOk = checkAdminService();
+        // Check all services at once; results are printed in a fixed order once every probe has finished or timed out
+        List<Probe> probes = List.of(
+            new Probe("auth", "POST /login", " Auth Service (Port 3000)........... ", "Auth Service",
+                authServiceFailures, HealthMonitorService::checkAuthService),
+            new Probe("queue", "GET /services", " Queue Service (Port 4000).......... ", "Queue Service",
+                queueServiceFailures, HealthMonitorService::checkQueueService),
+            new Probe("admin", "GET /services", " Admin Service (Port 5000).......... ", "Admin Service",
+                adminServiceFailures, HealthMonitorService::checkAdminService));
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(PROBE_DEADLINE_MS);
+        List<Future<String>> running = new ArrayList<>();
+        for (Probe probe : probes) {
+            running.add(probeExecutor.submit(probe));
+        }
+        boolean authOk = awaitProbe(probes.get(0), running.get(0), deadline);
+        boolean queueOk = awaitProbe(probes.get(1), running.get(1), deadline);
+        boolean adminOk = awaitProbe(probes.get(2), running.get(2), deadline);
         
-        // Check queue metrics if authenticated
+        // Check queue metrics if authenticated; fast degraded cadences don't multiply the load on the queue service
         if (authToken != null && queueOk) {
-            checkQueueMetrics();
+            long now = System.currentTimeMillis();
+            if (now - lastQueueMetricsAt >= CHECK_INTERVAL_SECONDS * 1000L) {
+                lastQueueMetricsAt = now;
+                metrics.beginQueueMetrics();
+                checkQueueMetrics();
+            }
+        } else {
+            metrics.beginQueueMetrics();
+            lastQueueMetricsAt = 0;
+        }
+        boolean slow = checkLatencySlos();
+        metrics.publish();
+        
+        if (history != null) {
+            try {
+                history.commit(System.currentTimeMillis());
+            } catch (IOException e) {
+                logError("Could not write history: " + e.getMessage());
+            }
         }
         
         // Overall status
@@ -110,138 +370,107 @@ public class HealthMonitorService {
             System.out.println("     Some services are down!");
         }
         System.out.println();
+        return authOk && queueOk && adminOk && !slow;
     }
     
-    private static boolean checkAuthService() {
-        System.out.print(" Auth Service (Port 3000)........... ");
+    // Wait for one probe until the shared deadline; a probe still running then is cancelled and counted as down
+    private static boolean awaitProbe(Probe probe, Future<String> result, long deadline) {
+        String status = null;
+        String reason = null;
         try {
-            // Simple connectivity check
-            URL url = new URL(AUTH_SERVICE + "/login");
-            HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-            conn.setRequestMethod("POST");
-            conn.setConnectTimeout(3000);
-            conn.setDoOutput(true);
-            conn.getOutputStream().write("{}".getBytes());
-            
-            int responseCode = conn.getResponseCode();
-            conn.disconnect();
-            
-            // Any response means service is up (even 400/403)
-            if (responseCode > 0) {
-                authServiceFailures = 0;
-                System.out.println("UP");
-                return true;
-            }
-        } catch (Exception e) {
-            authServiceFailures++;
-            System.out.println(" DOWN");
-            if (authServiceFailures >= ALERT_THRESHOLD) {
-                sendAlert("Auth Service", authServiceFailures);
-            }
+            status = result.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            result.cancel(true);
+            probe.abort();
+            reason = "no response in " + PROBE_DEADLINE_MS + " ms";
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.cancel(true);
+            probe.abort();
+            reason = "interrupted";
+        } catch (ExecutionException e) {
+            // Connection refused, read timeout, etc.
+        }
+        
+        slo.record(probe.key, probe.endpoint, probe.elapsedNanos(), status != null);
+        recordSample("service_up:" + probe.key, status != null ? 1 : 0);
+        recordSample("probe_latency_ms:" + probe.key, probe.elapsedNanos() / 1e6);
+        if (status != null) {
+            probe.failures.set(0);
+            metrics.recordProbe(probe.key, true, probe.elapsedNanos(), 0);
+            System.out.println(probe.label + status);
+            return true;
+        }
+        int failures = probe.failures.incrementAndGet();
+        metrics.recordProbe(probe.key, false, probe.elapsedNanos(), failures);
+        System.out.println(probe.label + "DOWN" + (reason != null ? " (" + reason + ")" : ""));
+        if (failures >= ALERT_THRESHOLD) {
+            sendAlert(probe.name, failures);
         }
         return false;
     }
     
-    private static boolean checkQueueService() {
-        System.out.print(" Queue Service (Port 4000).......... ");
-        try {
-            if (authToken == null) {
-                // Try basic connectivity without auth
-                URL url = new URL(QUEUE_SERVICE + "/services");
-                HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-                conn.setRequestMethod("GET");
-                conn.setConnectTimeout(3000);
-                int responseCode = conn.getResponseCode();
-                conn.disconnect();
-                
-                if (responseCode == 401) { // Expecting 401 without token
-                    queueServiceFailures = 0;
-                    System.out.println("UP (no auth)");
-                    return true;
-                }
-            } else {
-                // Full check with auth
-                String response = makeGetRequest(QUEUE_SERVICE + "/services");
-                if (response != null) {
-                    queueServiceFailures = 0;
-                    System.out.println(" UP");
-                    return true;
-                }
-            }
-        } catch (Exception e) {
-            queueServiceFailures++;
-            System.out.println(" DOWN");
-            if (queueServiceFailures >= ALERT_THRESHOLD) {
-                sendAlert("Queue Service", queueServiceFailures);
-            }
-        }
-        return false;
+    // Checks return the status to print when the service is up, null when it answered wrongly, or throw
+    private static String checkAuthService() throws Exception {
+        // Simple connectivity check
+        HttpURLConnection conn = openConnection(AUTH_SERVICE + "/login");
+        conn.setRequestMethod("POST");
+        conn.setDoOutput(true);
+        conn.getOutputStream().write("{}".getBytes());
+        
+        int responseCode = conn.getResponseCode();
+        conn.disconnect();
+        
+        // Any response means service is up (even 400/403)
+        return responseCode > 0 ? "UP" : null;
     }
     
-    private static boolean checkAdminService() {
-        System.out.print(" Admin Service (Port 5000).......... ");
-        try {
-            if (authToken == null) {
-                URL url = new URL(ADMIN_SERVICE + "/services");
-                HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-                conn.setRequestMethod("GET");
-                conn.setConnectTimeout(3000);
-                int responseCode = conn.getResponseCode();
-                conn.disconnect();
-                
-                if (responseCode == 401) {
-                    adminServiceFailures = 0;
-                    System.out.println(" UP (no auth)");
-                    return true;
-                }
-            } else {
-                String response = makeGetRequest(ADMIN_SERVICE + "/services");
-                if (response != null) {
-                    adminServiceFailures = 0;
-                    System.out.println(" UP");
-                    return true;
-                }
-            }
-        } catch (Exception e) {
-            adminServiceFailures++;
-            System.out.println(" DOWN");
-            if (adminServiceFailures >= ALERT_THRESHOLD) {
-                sendAlert("Admin Service", adminServiceFailures);
-            }
+    private static String checkQueueService() throws Exception {
+        return checkServiceEndpoint(QUEUE_SERVICE + "/services");
+    }
+    
+    private static String checkAdminService() throws Exception {
+        return checkServiceEndpoint(ADMIN_SERVICE + "/services");
+    }
+    
+    private static String checkServiceEndpoint(String urlString) throws Exception {
+        if (authToken == null) {
+            // Try basic connectivity without auth
+            HttpURLConnection conn = openConnection(urlString);
+            conn.setRequestMethod("GET");
+            int responseCode = conn.getResponseCode();
+            conn.disconnect();
+            
+            // Expecting 401 without token
+            return responseCode == 401 ? "UP (no auth)" : null;
         }
-        return false;
+        // Full check with auth
+        return makeGetRequest(urlString) != null ? "UP" : null;
     }
     
     private static void checkQueueMetrics() {
         System.out.println("\n Queue Metrics:");
+        QueueCounts counts = null;
         try {
-            String response = makeGetRequest(QUEUE_SERVICE + "/queue/get");
-            if (response != null) {
-                JSONArray queues = new JSONArray(response);
-                
-                int total = queues.length();
-                int waiting = 0;
-                int inProgress = 0;
-                int completed = 0;
-                
-                for (int i = 0; i < queues.length(); i++) {
-                    JSONObject queue = queues.getJSONObject(i);
-                    String status = queue.optString("status", "waiting");
-                    
-                    switch (status.toLowerCase()) {
-                        case "waiting": waiting++; break;
-                        case "in-progress": inProgress++; break;
-                        case "completed": completed++; break;
-                    }
+            counts = fetchQueueStats();
+            if (counts == null) {
+                counts = timed("queue", "GET /queue/get", HealthMonitorService::countQueue);
+            }
+            if (counts != null) {
+                System.out.println("   Total Bookings: " + counts.total());
+                System.out.println("    Waiting: " + counts.byStatus[WAITING]);
+                System.out.println("    In Progress: " + counts.byStatus[IN_PROGRESS]);
+                System.out.println("    Completed: " + counts.byStatus[COMPLETED]);
+                for (int i = 0; i < STATUS_CODES.length; i++) {
+                    metrics.recordBookings(STATUS_CODES[i], counts.byStatus[i]);
+                    recordSample("bookings:" + STATUS_CODES[i], counts.byStatus[i]);
+                }
+                for (Map.Entry<String, Integer> entry : counts.waitingByService.entrySet()) {
+                    recordSample("queue_waiting:" + entry.getKey(), entry.getValue());
                 }
-                
-                System.out.println("   Total Bookings: " + total);
-                System.out.println("    Waiting: " + waiting);
-                System.out.println("    In Progress: " + inProgress);
-                System.out.println("    Completed: " + completed);
                 
                 // Alert if too many waiting
-                if (waiting > 20) {
+                if (counts.byStatus[WAITING] > 20) {
                     System.out.println("     HIGH QUEUE VOLUME DETECTED!");
                 }
             }
@@ -251,7 +480,7 @@ public class HealthMonitorService {
         
         // Check services capacity
         try {
-            String response = makeGetRequest(QUEUE_SERVICE + "/services");
+            String response = timed("queue", "GET /services", () -> makeGetRequest(QUEUE_SERVICE + "/services"));
             if (response != null) {
                 JSONArray services = new JSONArray(response);
                 System.out.println("\n Service Capacity:");
@@ -259,15 +488,19 @@ public class HealthMonitorService {
                 for (int i = 0; i < services.length(); i++) {
                     JSONObject service = services.getJSONObject(i);
                     String name = service.optString("name", "Unknown");
+                    Integer waiting = counts != null ? counts.waitingByService.get(service.optString("service_id")) : null;
                     int current = service.optInt("current_queue_count", 0);
                     int max = service.optInt("max_capacity", 50);
                     double percentage = (current * 100.0) / max;
+                    metrics.recordServiceLoad(service.optString("service_id"), name, current, max);
+                    recordSample("queue_depth:" + service.optString("service_id"), current);
+                    recordSample("capacity_utilization:" + service.optString("service_id"), max > 0 ? (double) current / max : 0);
                     
                     String status = percentage >= 90 ? "🔴" : 
                                    percentage >= 70 ? "🟡" : "🟢";
                     
-                    System.out.printf("   %s %s: %d/%d (%.0f%%)\n", 
-                        status, name, current, max, percentage);
+                    System.out.printf("   %s %s: %d/%d (%.0f%%)%s\n", 
+                        status, name, current, max, percentage, waiting != null ? ", " + waiting + " waiting" : "");
                     
                     if (percentage >= 90) {
                         System.out.println("   NEAR CAPACITY!");
@@ -279,18 +512,236 @@ public class HealthMonitorService {
         }
     }
     
+    // True while any endpoint is over its p99 objective. Budget burn is left out: it looks back over
+    // the window, so it would keep probes fast long after a recovery.
+    private static boolean checkLatencySlos() {
+        System.out.println("\n Latency SLOs (p99 1m / 5m / 1h, budget burn 5m / 1h):");
+        // Alerts go below the table
+        List<Runnable> notices = new ArrayList<>();
+        boolean anySlow = false;
+        for (LatencySlo.Series series : slo.series()) {
+            long p99Minute = series.p99Micros(LatencySlo.ONE_MINUTE);
+            long p99FiveMinutes = series.p99Micros(LatencySlo.FIVE_MINUTES);
+            long p99Hour = series.p99Micros(LatencySlo.ONE_HOUR);
+            double burnFiveMinutes = series.burnRate(LatencySlo.FIVE_MINUTES);
+            double burnHour = series.burnRate(LatencySlo.ONE_HOUR);
+            System.out.printf("   %-6s %-18s %s / %s / %s   burn %.1f / %.1f\n", series.service, series.endpoint,
+                formatMicros(p99Minute), formatMicros(p99FiveMinutes), formatMicros(p99Hour), burnFiveMinutes, burnHour);
+            
+            metrics.recordSlo(series.service, series.endpoint, "1m", p99Minute, series.burnRate(LatencySlo.ONE_MINUTE));
+            metrics.recordSlo(series.service, series.endpoint, "5m", p99FiveMinutes, burnFiveMinutes);
+            metrics.recordSlo(series.service, series.endpoint, "1h", p99Hour, burnHour);
+            
+            boolean slow = series.latencyBreached();
+            if (series.updateLatencyAlert(slow)) {
+                String detail = "p99 latency " + formatMicros(p99FiveMinutes) + " over the last 5 minutes, objective "
+                    + formatMicros(series.objective.p99Micros());
+                notices.add(slow ? () -> sendSloAlert(series, detail)
+                    : () -> System.out.println("   ✓ " + series.service + " " + series.endpoint + " p99 latency back within objective"));
+            }
+            boolean burning = series.budgetBurning();
+            anySlow |= slow;
+            if (series.updateBudgetAlert(burning)) {
+                String detail = String.format("error budget burning %.1fx over 1h and %.1fx over 5m (alert at %.1fx)",
+                    burnHour, burnFiveMinutes, LatencySlo.BURN_RATE_ALERT);
+                notices.add(burning ? () -> sendSloAlert(series, detail)
+                    : () -> System.out.println("   ✓ " + series.service + " " + series.endpoint + " error budget burn back to normal"));
+            }
+        }
+        notices.forEach(Runnable::run);
+        return anySlow;
+    }
+    
+    private static TimeSeriesStore openHistory() {
+        Path directory = TimeSeriesStore.defaultDirectory();
+        if (directory.toString().isEmpty()) {
+            return null;
+        }
+        try {
+            return TimeSeriesStore.open(directory);
+        } catch (IOException e) {
+            logError("History disabled, could not open " + directory + ": " + e.getMessage());
+            return null;
+        }
+    }
+    
+    private static void recordSample(String series, double value) {
+        if (history != null) {
+            try {
+                history.add(series, value);
+            } catch (IOException e) {
+                logError("Could not record " + series + ": " + e.getMessage());
+            }
+        }
+    }
+    
+    private static <T> T timed(String service, String endpoint, Callable<T> request) throws Exception {
+        long started = System.nanoTime();
+        boolean ok = false;
+        try {
+            T result = request.call();
+            ok = result != null;
+            return result;
+        } finally {
+            slo.record(service, endpoint, System.nanoTime() - started, ok);
+        }
+    }
+    
+    private static String formatMicros(long micros) {
+        if (micros < 0) {
+            return "-";
+        }
+        return micros < 10_000 ? String.format("%.1fms", micros / 1000.0) : (micros / 1000) + "ms";
+    }
+    
+    // Per-status counts from the admin stats endpoint; null when it isn't available to this monitor
+    private static QueueCounts fetchQueueStats() throws Exception {
+        if (Boolean.FALSE.equals(statsEndpointUsable)) {
+            return null;
+        }
+        QueueCounts counts = timed("admin", "GET /admin/queue/stats", HealthMonitorService::requestQueueStats);
+        return counts == STATS_UNSUPPORTED ? null : counts;
+    }
+    
+    private static QueueCounts requestQueueStats() throws Exception {
+        HttpURLConnection conn = openConnection(ADMIN_SERVICE + "/admin/queue/stats");
+        conn.setRequestMethod("GET");
+        if (authToken != null) {
+            conn.setRequestProperty("Authorization", "Bearer " + authToken);
+        }
+        
+        int responseCode = conn.getResponseCode();
+        if (responseCode != 200) {
+            conn.disconnect();
+            // Not an admin, or no such endpoint: stop asking. Anything else may be transient.
+            if (responseCode == 403 || responseCode == 404 || responseCode == 405) {
+                statsEndpointUsable = false;
+                return STATS_UNSUPPORTED;
+            }
+            return null;
+        }
+        
+        JSONObject stats;
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(conn.getInputStream(), StandardCharsets.UTF_8))) {
+            stats = new JSONObject(new JSONTokener(br));
+        } finally {
+            conn.disconnect();
+        }
+        JSONObject byStatus = stats.optJSONObject("by_status");
+        JSONObject waitingByService = stats.optJSONObject("waiting_by_service");
+        if (byStatus == null || waitingByService == null) {
+            // Older admin service without per-status or per-service counts
+            statsEndpointUsable = false;
+            return STATS_UNSUPPORTED;
+        }
+        statsEndpointUsable = true;
+        
+        QueueCounts counts = new QueueCounts();
+        for (String status : byStatus.keySet()) {
+            counts.byStatus[statusOf(status)] += byStatus.optInt(status, 0);
+        }
+        for (String serviceId : waitingByService.keySet()) {
+            counts.waitingByService.put(serviceId, waitingByService.optInt(serviceId, 0));
+        }
+        return counts;
+    }
+    
+    // Count /queue/get in a single streaming pass. A server that sends X-Queue-Watermark gets ?since= on the
+    // next cycle and its deltas are applied to the compact index; any other response is the full list and is
+    // just tallied, keeping nothing between cycles.
+    private static QueueCounts countQueue() throws Exception {
+        String urlString = QUEUE_SERVICE + "/queue/get";
+        boolean delta = queueWatermark != null;
+        if (delta) {
+            urlString += "?since=" + URLEncoder.encode(queueWatermark, StandardCharsets.UTF_8);
+        }
+        
+        HttpURLConnection conn = openConnection(urlString);
+        conn.setRequestMethod("GET");
+        if (authToken != null) {
+            conn.setRequestProperty("Authorization", "Bearer " + authToken);
+        }
+        
+        int responseCode = conn.getResponseCode();
+        if (responseCode < 200 || responseCode >= 300) {
+            conn.disconnect();
+            return null;
+        }
+        
+        String watermark = conn.getHeaderField("X-Queue-Watermark");
+        if (watermark == null || !delta) {
+            queueIndex.clear();
+        }
+        QueueCounts counts = new QueueCounts();
+        ServiceTally waitingByService = new ServiceTally();
+        try (InputStream in = conn.getInputStream()) {
+            BookingScanner row = new BookingScanner(in);
+            if (watermark == null) {
+                row.scan(() -> {
+                    if (!row.deleted) {
+                        counts.byStatus[row.status]++;
+                        if (row.status == WAITING) {
+                            waitingByService.add(row.serviceId, row.serviceIdLength);
+                        }
+                    }
+                });
+            } else {
+                row.scan(() -> {
+                    String queueId = new String(row.queueId, 0, row.queueIdLength, StandardCharsets.UTF_8);
+                    if (row.deleted) {
+                        queueIndex.remove(queueId);
+                    } else {
+                        String serviceId = new String(row.serviceId, 0, row.serviceIdLength, StandardCharsets.UTF_8);
+                        queueIndex.put(queueId, new Booking(row.status, serviceIds.computeIfAbsent(serviceId, id -> id)));
+                    }
+                });
+            }
+        } catch (Exception e) {
+            // A partial scan leaves the index behind the watermark; start over with a full list
+            queueIndex.clear();
+            queueWatermark = null;
+            throw e;
+        } finally {
+            conn.disconnect();
+        }
+        
+        queueWatermark = watermark;
+        if (watermark == null) {
+            waitingByService.copyInto(counts.waitingByService);
+        } else {
+            for (Booking booking : queueIndex.values()) {
+                counts.byStatus[booking.status()]++;
+                if (booking.status() == WAITING && !booking.serviceId().isEmpty()) {
+                    counts.waitingByService.merge(booking.serviceId(), 1, Integer::sum);
+                }
+            }
+        }
+        return counts;
+    }
+    
+    private static int statusOf(String status) {
+        for (int i = 0; i < STATUS_CODES.length; i++) {
+            if (STATUS_CODES[i].equalsIgnoreCase(status)) {
+                return i;
+            }
+        }
+        return OTHER_STATUS;
+    }
+    
     private static void sendAlert(String serviceName, int failureCount) {
         System.out.println("\n ALERT: " + serviceName + " has been down for " + 
                          failureCount + " consecutive checks!");
         System.out.println("   Action required: Check service logs and restart if needed\n");
     }
     
+    private static void sendSloAlert(LatencySlo.Series series, String detail) {
+        System.out.println("\n SLO ALERT: " + series.service + " " + series.endpoint + ": " + detail);
+        System.out.println("   Action required: Check service load and recent deploys\n");
+    }
+    
     private static String makeGetRequest(String urlString) throws Exception {
-        URL url = new URL(urlString);
-        HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+        HttpURLConnection conn = openConnection(urlString);
         conn.setRequestMethod("GET");
-        conn.setConnectTimeout(3000);
-        conn.setReadTimeout(3000);
         
         if (authToken != null) {
             conn.setRequestProperty("Authorization", "Bearer " + authToken);
@@ -316,13 +767,10 @@ public class HealthMonitorService {
     }
     
     private static String makePostRequest(String urlString, String jsonBody) throws Exception {
-        URL url = new URL(urlString);
-        HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+        HttpURLConnection conn = openConnection(urlString);
         conn.setRequestMethod("POST");
         conn.setRequestProperty("Content-Type", "application/json");
         conn.setDoOutput(true);
-        conn.setConnectTimeout(3000);
-        conn.setReadTimeout(3000);
         
         conn.getOutputStream().write(jsonBody.getBytes());
         
@@ -339,6 +787,19 @@ public class HealthMonitorService {
         return response.toString();
     }
     
+    // Every request gets connect and read timeouts; inside a probe the connection is also registered
+    // so the probe deadline can close it
+    private static HttpURLConnection openConnection(String urlString) throws IOException {
+        HttpURLConnection conn = (HttpURLConnection) new URL(urlString).openConnection();
+        conn.setConnectTimeout(REQUEST_TIMEOUT_MS);
+        conn.setReadTimeout(REQUEST_TIMEOUT_MS);
+        Probe probe = currentProbe.get();
+        if (probe != null) {
+            probe.register(conn);
+        }
+        return conn;
+    }
+    
     private static String getCurrentTimestamp() {
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
         return LocalDateTime.now().format(formatter);
@@ -347,4 +808,1341 @@ public class HealthMonitorService {
     private static void logError(String message) {
         System.err.println("[ERROR " + getCurrentTimestamp() + "] " + message);
     }
-}
\ No newline at end of file
+    
+    /** One service check for one cycle, run on the probe executor. */
+    private static final class Probe implements Callable<String> {
+        final String key;
+        final String endpoint;
+        final String label;
+        final String name;
+        final AtomicInteger failures;
+        private final Callable<String> check;
+        private volatile HttpURLConnection connection;
+        private volatile boolean aborted;
+        private volatile long startedAt;
+        private volatile long finishedAt;
+        
+        Probe(String key, String endpoint, String label, String name, AtomicInteger failures, Callable<String> check) {
+            this.key = key;
+            this.endpoint = endpoint;
+            this.label = label;
+            this.name = name;
+            this.failures = failures;
+            this.check = check;
+        }
+        
+        @Override
+        public String call() throws Exception {
+            currentProbe.set(this);
+            startedAt = System.nanoTime();
+            try {
+                return check.call();
+            } finally {
+                finishedAt = System.nanoTime();
+                currentProbe.remove();
+            }
+        }
+        
+        // Response time; a probe cut off at the deadline counts up to now
+        long elapsedNanos() {
+            long started = startedAt;
+            if (started == 0) {
+                return 0;
+            }
+            long finished = finishedAt;
+            return (finished != 0 ? finished : System.nanoTime()) - started;
+        }
+        
+        void register(HttpURLConnection conn) throws IOException {
+            connection = conn;
+            if (aborted) {
+                conn.disconnect();
+                throw new IOException("Probe cancelled");
+            }
+        }
+        
+        // HttpURLConnection ignores interrupts; closing the socket is what unblocks a hung read
+        void abort() {
+            aborted = true;
+            HttpURLConnection conn = connection;
+            if (conn != null) {
+                conn.disconnect();
+            }
+        }
+    }
+    
+    private record Booking(int status, String serviceId) {}
+    
+    /** Counts for one metrics cycle. */
+    private static final class QueueCounts {
+        final int[] byStatus = new int[OTHER_STATUS + 1];
+        final Map<String, Integer> waitingByService = new HashMap<>();
+        
+        int total() {
+            return Arrays.stream(byStatus).sum();
+        }
+    }
+    
+    /** Waiting bookings per service id, keyed by the raw id bytes so counting a row allocates nothing. */
+    private static final class ServiceTally {
+        private byte[][] ids = new byte[16][];
+        private int[] counts = new int[16];
+        private int size;
+        
+        void add(byte[] id, int length) {
+            if (length == 0) {
+                return;
+            }
+            // Services number in the tens, so a linear search beats hashing the id
+            for (int i = 0; i < size; i++) {
+                if (Arrays.equals(ids[i], 0, ids[i].length, id, 0, length)) {
+                    counts[i]++;
+                    return;
+                }
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                counts = Arrays.copyOf(counts, size * 2);
+            }
+            ids[size] = Arrays.copyOf(id, length);
+            counts[size++] = 1;
+        }
+        
+        void copyInto(Map<String, Integer> target) {
+            for (int i = 0; i < size; i++) {
+                target.put(new String(ids[i], StandardCharsets.UTF_8), counts[i]);
+            }
+        }
+    }
+    
+    /**
+     * Single pass over a JSON array of bookings straight off the socket. Only queue_id, status, service_id
+     * and deleted are read from each top-level object; every other value is skipped byte by byte, so no
+     * JSON tree or per-field strings are built. The fields below hold the current row while onRow runs.
+     */
+    private static final class BookingScanner {
+        private static final byte[] QUEUE_ID = "queue_id".getBytes(StandardCharsets.US_ASCII);
+        private static final byte[] STATUS = "status".getBytes(StandardCharsets.US_ASCII);
+        private static final byte[] SERVICE_ID = "service_id".getBytes(StandardCharsets.US_ASCII);
+        private static final byte[] DELETED = "deleted".getBytes(StandardCharsets.US_ASCII);
+        private static final byte[][] STATUS_BYTES = new byte[STATUS_CODES.length][];
+        static {
+            for (int i = 0; i < STATUS_CODES.length; i++) {
+                STATUS_BYTES[i] = STATUS_CODES[i].getBytes(StandardCharsets.US_ASCII);
+            }
+        }
+        
+        private final InputStream in;
+        private final byte[] buffer = new byte[8192];
+        private int position;
+        private int limit;
+        // Decoded bytes of the last string read
+        private byte[] text = new byte[64];
+        private int textLength;
+        
+        int status;
+        boolean deleted;
+        byte[] queueId = new byte[64];
+        int queueIdLength;
+        byte[] serviceId = new byte[64];
+        int serviceIdLength;
+        
+        BookingScanner(InputStream in) {
+            this.in = in;
+        }
+        
+        int scan(Runnable onRow) throws IOException {
+            expect(nextToken(), '[');
+            int rows = 0;
+            int c = nextToken();
+            if (c == ']') {
+                return rows;
+            }
+            while (true) {
+                expect(c, '{');
+                readObject();
+                onRow.run();
+                rows++;
+                c = nextToken();
+                if (c == ']') {
+                    return rows;
+                }
+                expect(c, ',');
+                c = nextToken();
+            }
+        }
+        
+        private void readObject() throws IOException {
+            // Same default as the old optString("status", "waiting")
+            status = WAITING;
+            deleted = false;
+            queueIdLength = 0;
+            serviceIdLength = 0;
+            
+            int c = nextToken();
+            if (c == '}') {
+                return;
+            }
+            while (true) {
+                expect(c, '"');
+                readString();
+                byte[] field = textEquals(QUEUE_ID) ? QUEUE_ID : textEquals(STATUS) ? STATUS
+                    : textEquals(SERVICE_ID) ? SERVICE_ID : textEquals(DELETED) ? DELETED : null;
+                expect(nextToken(), ':');
+                c = nextToken();
+                if (c == '"' && field != null && field != DELETED) {
+                    readString();
+                    if (field == STATUS) {
+                        status = matchStatus();
+                    } else if (field == QUEUE_ID) {
+                        queueId = copyText(queueId);
+                        queueIdLength = textLength;
+                    } else {
+                        serviceId = copyText(serviceId);
+                        serviceIdLength = textLength;
+                    }
+                } else {
+                    if (field == DELETED) {
+                        deleted = c == 't';
+                    }
+                    skipValue(c);
+                }
+                c = nextToken();
+                if (c == '}') {
+                    return;
+                }
+                expect(c, ',');
+                c = nextToken();
+            }
+        }
+        
+        // Case-insensitive match against the known status codes without building a string
+        private int matchStatus() {
+            for (int i = 0; i < STATUS_BYTES.length; i++) {
+                byte[] code = STATUS_BYTES[i];
+                if (code.length != textLength) {
+                    continue;
+                }
+                int j = 0;
+                while (j < textLength) {
+                    int b = text[j];
+                    if (b >= 'A' && b <= 'Z') {
+                        b += 'a' - 'A';
+                    }
+                    if (b != code[j]) {
+                        break;
+                    }
+                    j++;
+                }
+                if (j == textLength) {
+                    return i;
+                }
+            }
+            return OTHER_STATUS;
+        }
+        
+        private boolean textEquals(byte[] value) {
+            return Arrays.equals(text, 0, textLength, value, 0, value.length);
+        }
+        
+        private byte[] copyText(byte[] target) {
+            if (target.length < textLength) {
+                target = new byte[Math.max(textLength, target.length * 2)];
+            }
+            System.arraycopy(text, 0, target, 0, textLength);
+            return target;
+        }
+        
+        // Opening quote already consumed; escapes are decoded, unicode escapes as one UTF-8 sequence per code unit
+        private void readString() throws IOException {
+            textLength = 0;
+            while (true) {
+                int b = read();
+                if (b == '"') {
+                    return;
+                }
+                if (b == '\\') {
+                    int escape = read();
+                    switch (escape) {
+                        case 'b': append('\b'); break;
+                        case 'f': append('\f'); break;
+                        case 'n': append('\n'); break;
+                        case 'r': append('\r'); break;
+                        case 't': append('\t'); break;
+                        case 'u': appendChar(readHex()); break;
+                        default: append(escape);
+                    }
+                } else {
+                    append(b);
+                }
+            }
+        }
+        
+        private int readHex() throws IOException {
+            int value = 0;
+            for (int i = 0; i < 4; i++) {
+                int digit = Character.digit(read(), 16);
+                if (digit < 0) {
+                    throw new IOException("Bad \\u escape in JSON string");
+                }
+                value = value << 4 | digit;
+            }
+            return value;
+        }
+        
+        private void appendChar(int ch) {
+            if (ch < 0x80) {
+                append(ch);
+            } else if (ch < 0x800) {
+                append(0xC0 | ch >> 6);
+                append(0x80 | ch & 0x3F);
+            } else {
+                append(0xE0 | ch >> 12);
+                append(0x80 | ch >> 6 & 0x3F);
+                append(0x80 | ch & 0x3F);
+            }
+        }
+        
+        private void append(int b) {
+            if (textLength == text.length) {
+                text = Arrays.copyOf(text, textLength * 2);
+            }
+            text[textLength++] = (byte) b;
+        }
+        
+        // First byte of the value already consumed
+        private void skipValue(int c) throws IOException {
+            if (c == '"') {
+                skipString();
+            } else if (c == '{' || c == '[') {
+                int depth = 1;
+                while (depth > 0) {
+                    int b = read();
+                    if (b == '"') {
+                        skipString();
+                    } else if (b == '{' || b == '[') {
+                        depth++;
+                    } else if (b == '}' || b == ']') {
+                        depth--;
+                    }
+                }
+            } else {
+                // Number, true, false or null: runs up to the next delimiter
+                while (true) {
+                    int b = peek();
+                    if (b == ',' || b == '}' || b == ']' || b <= ' ') {
+                        return;
+                    }
+                    position++;
+                }
+            }
+        }
+        
+        private void skipString() throws IOException {
+            while (true) {
+                int b = read();
+                if (b == '"') {
+                    return;
+                }
+                if (b == '\\') {
+                    read();
+                }
+            }
+        }
+        
+        private int nextToken() throws IOException {
+            while (true) {
+                int b = read();
+                if (b != ' ' && b != '\n' && b != '\r' && b != '\t') {
+                    return b;
+                }
+            }
+        }
+        
+        private void expect(int actual, char expected) throws IOException {
+            if (actual != expected) {
+                throw new IOException("Malformed queue list: expected '" + expected + "'");
+            }
+        }
+        
+        // Next byte without consuming it; -1 (which counts as a delimiter) at end of input
+        private int peek() throws IOException {
+            if (position == limit && !fill()) {
+                return -1;
+            }
+            return buffer[position] & 0xFF;
+        }
+        
+        private int read() throws IOException {
+            if (position == limit && !fill()) {
+                throw new IOException("Queue list ended early");
+            }
+            return buffer[position++] & 0xFF;
+        }
+        
+        private boolean fill() throws IOException {
+            int n = in.read(buffer, 0, buffer.length);
+            if (n <= 0) {
+                return false;
+            }
+            position = 0;
+            limit = n;
+            return true;
+        }
+    }
+
+    /**
+     * OpenMetrics exposition of the health monitor's results, served at /metrics.
+     *
+     * The monitor's scheduler thread records into this object and calls publish()
+     * once per health check; publish() renders the whole exposition into a reused
+     * buffer and swaps in the encoded bytes. A scrape only writes out the last
+     * rendering, so it costs one write regardless of how often it comes.
+     *
+     *   -Dqueueflex.monitor.metricsPort=9400   0 disables the endpoint
+     */
+    private static final class MonitorMetrics {
+
+        static final String CONTENT_TYPE = "application/openmetrics-text; version=1.0.0; charset=utf-8";
+
+        // Probe latency buckets in seconds; probes are cut off at the deadline anyway
+        private static final double[] BUCKETS = {0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10};
+
+        private final Map<String, ProbeSeries> probes = new LinkedHashMap<>();
+        private final Map<String, Integer> bookings = new LinkedHashMap<>();
+        private final List<ServiceLoad> serviceLoads = new ArrayList<>();
+        private final Map<String, SloWindow> sloWindows = new LinkedHashMap<>();
+        private final StringBuilder text = new StringBuilder(4096);
+        private volatile byte[] exposition = "# EOF\n".getBytes(StandardCharsets.UTF_8);
+        private HttpServer server;
+
+        private record ServiceLoad(String serviceId, String name, int current, int max) {}
+
+        private record SloWindow(String service, String endpoint, String window, long p99Micros, double burnRate) {}
+
+        /** Cumulative probe results for one backend service. */
+        private static final class ProbeSeries {
+            final long[] bucketCounts = new long[BUCKETS.length];
+            long count;
+            double sumSeconds;
+            long failuresTotal;
+            int consecutiveFailures;
+            boolean up;
+        }
+
+        void recordProbe(String service, boolean up, long elapsedNanos, int consecutiveFailures) {
+            ProbeSeries series = probes.computeIfAbsent(service, key -> new ProbeSeries());
+            double seconds = elapsedNanos / 1e9;
+            for (int i = 0; i < BUCKETS.length; i++) {
+                if (seconds <= BUCKETS[i]) {
+                    series.bucketCounts[i]++;
+                }
+            }
+            series.count++;
+            series.sumSeconds += seconds;
+            series.up = up;
+            series.consecutiveFailures = consecutiveFailures;
+            if (!up) {
+                series.failuresTotal++;
+            }
+        }
+
+        // Queue figures are per cycle: cleared here so a cycle without them exports none rather than stale ones
+        void beginQueueMetrics() {
+            bookings.clear();
+            serviceLoads.clear();
+        }
+
+        void recordBookings(String status, int count) {
+            bookings.put(status, count);
+        }
+
+        void recordServiceLoad(String serviceId, String name, int current, int max) {
+            serviceLoads.add(new ServiceLoad(serviceId, name, current, max));
+        }
+
+        // p99Micros is -1 when the window has no successful requests
+        void recordSlo(String service, String endpoint, String window, long p99Micros, double burnRate) {
+            sloWindows.put(service + " " + endpoint + " " + window, new SloWindow(service, endpoint, window, p99Micros, burnRate));
+        }
+
+        void publish() {
+            StringBuilder out = text;
+            out.setLength(0);
+
+            family(out, "queueflex_service_up", "gauge", null, "Whether the last probe of the service succeeded");
+            for (Map.Entry<String, ProbeSeries> entry : probes.entrySet()) {
+                sample(out, "queueflex_service_up", "service", entry.getKey(), entry.getValue().up ? 1 : 0);
+            }
+
+            family(out, "queueflex_probe_duration_seconds", "histogram", "seconds", "Probe response time, timeouts counted at the deadline");
+            for (Map.Entry<String, ProbeSeries> entry : probes.entrySet()) {
+                ProbeSeries series = entry.getValue();
+                String service = escape(entry.getKey());
+                for (int i = 0; i < BUCKETS.length; i++) {
+                    out.append("queueflex_probe_duration_seconds_bucket{service=\"").append(service)
+                        .append("\",le=\"").append(BUCKETS[i]).append("\"} ").append(series.bucketCounts[i]).append('\n');
+                }
+                out.append("queueflex_probe_duration_seconds_bucket{service=\"").append(service)
+                    .append("\",le=\"+Inf\"} ").append(series.count).append('\n');
+                out.append("queueflex_probe_duration_seconds_count{service=\"").append(service).append("\"} ")
+                    .append(series.count).append('\n');
+                out.append("queueflex_probe_duration_seconds_sum{service=\"").append(service).append("\"} ")
+                    .append(series.sumSeconds).append('\n');
+            }
+
+            family(out, "queueflex_probe_failures", "counter", null, "Failed probes since the monitor started");
+            for (Map.Entry<String, ProbeSeries> entry : probes.entrySet()) {
+                sample(out, "queueflex_probe_failures_total", "service", entry.getKey(), entry.getValue().failuresTotal);
+            }
+
+            family(out, "queueflex_probe_consecutive_failures", "gauge", null, "Failed probes in a row; resets on success");
+            for (Map.Entry<String, ProbeSeries> entry : probes.entrySet()) {
+                sample(out, "queueflex_probe_consecutive_failures", "service", entry.getKey(), entry.getValue().consecutiveFailures);
+            }
+
+            family(out, "queueflex_queue_bookings", "gauge", null, "Bookings visible to the monitor by status");
+            for (Map.Entry<String, Integer> entry : bookings.entrySet()) {
+                sample(out, "queueflex_queue_bookings", "status", entry.getKey(), entry.getValue());
+            }
+
+            family(out, "queueflex_service_queue_depth", "gauge", null, "current_queue_count of each service");
+            for (ServiceLoad load : serviceLoads) {
+                serviceSample(out, "queueflex_service_queue_depth", load, load.current());
+            }
+            family(out, "queueflex_service_max_capacity", "gauge", null, "max_capacity of each service");
+            for (ServiceLoad load : serviceLoads) {
+                serviceSample(out, "queueflex_service_max_capacity", load, load.max());
+            }
+            family(out, "queueflex_service_capacity_utilization_ratio", "gauge", "ratio", "current_queue_count / max_capacity");
+            for (ServiceLoad load : serviceLoads) {
+                serviceSample(out, "queueflex_service_capacity_utilization_ratio", load,
+                    load.max() > 0 ? (double) load.current() / load.max() : 0);
+            }
+
+            family(out, "queueflex_slo_latency_p99_seconds", "gauge", "seconds", "p99 of successful requests over the window");
+            for (SloWindow slo : sloWindows.values()) {
+                if (slo.p99Micros() >= 0) {
+                    sloSample(out, "queueflex_slo_latency_p99_seconds", slo, slo.p99Micros() / 1e6);
+                }
+            }
+            family(out, "queueflex_slo_error_budget_burn_rate", "gauge", null, "Error ratio over the window divided by the error budget");
+            for (SloWindow slo : sloWindows.values()) {
+                sloSample(out, "queueflex_slo_error_budget_burn_rate", slo, slo.burnRate());
+            }
+
+            family(out, "queueflex_monitor_last_check_timestamp_seconds", "gauge", "seconds", "When this exposition was rendered");
+            out.append("queueflex_monitor_last_check_timestamp_seconds ").append(System.currentTimeMillis() / 1000.0).append('\n');
+
+            out.append("# EOF\n");
+            exposition = out.toString().getBytes(StandardCharsets.UTF_8);
+        }
+
+        void start(int port) throws IOException {
+            server = HttpServer.create(new InetSocketAddress(port), 0);
+            server.createContext("/metrics", this::scrape);
+            server.start();
+        }
+
+        void stop() {
+            if (server != null) {
+                server.stop(0);
+            }
+        }
+
+        private void scrape(HttpExchange exchange) throws IOException {
+            try {
+                if (!"GET".equals(exchange.getRequestMethod())) {
+                    exchange.sendResponseHeaders(405, -1);
+                    return;
+                }
+                byte[] body = exposition;
+                exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            } finally {
+                exchange.close();
+            }
+        }
+
+        private static void family(StringBuilder out, String name, String type, String unit, String help) {
+            out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+            if (unit != null) {
+                out.append("# UNIT ").append(name).append(' ').append(unit).append('\n');
+            }
+            out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        }
+
+        private static void sample(StringBuilder out, String name, String label, String value, double sample) {
+            out.append(name).append('{').append(label).append("=\"").append(escape(value)).append("\"} ");
+            appendNumber(out, sample);
+        }
+
+        private static void serviceSample(StringBuilder out, String name, ServiceLoad load, double sample) {
+            out.append(name).append("{service_id=\"").append(escape(load.serviceId()))
+                .append("\",name=\"").append(escape(load.name())).append("\"} ");
+            appendNumber(out, sample);
+        }
+
+        private static void sloSample(StringBuilder out, String name, SloWindow slo, double sample) {
+            out.append(name).append("{service=\"").append(escape(slo.service()))
+                .append("\",endpoint=\"").append(escape(slo.endpoint()))
+                .append("\",window=\"").append(slo.window()).append("\"} ");
+            appendNumber(out, sample);
+        }
+
+        private static void appendNumber(StringBuilder out, double value) {
+            if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+                out.append((long) value);
+            } else {
+                out.append(value);
+            }
+            out.append('\n');
+        }
+
+        private static String escape(String value) {
+            if (value.indexOf('\\') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+                return value;
+            }
+            return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+        }
+    }
+
+    /**
+     * Rolling-window latency and availability tracking per service and endpoint.
+     *
+     * Each series keeps an hour of 10-second slots. A slot holds a request count,
+     * an error count and a log-scale latency histogram (8 buckets per doubling,
+     * so percentiles are within 12.5%), allocated the first time the slot is used
+     * and recycled when the ring wraps. Window queries merge the slots that fall
+     * inside the window, so memory stays fixed however long the monitor runs.
+     *
+     * Objectives (system properties, per-service overrides as queueflex.slo.<service>.*):
+     *   queueflex.slo.p99Ms=1000          latency objective for successful requests
+     *   queueflex.slo.availability=0.995  success ratio target; 1 - target is the error budget
+     *   queueflex.slo.burnRate=14.4       budget burn rate that alerts when both 5m and 1h exceed it
+     */
+    private static final class LatencySlo {
+
+        static final int ONE_MINUTE = 60;
+        static final int FIVE_MINUTES = 300;
+        static final int ONE_HOUR = 3600;
+
+        private static final long SLOT_NANOS = 10_000_000_000L;
+        private static final int SLOTS = ONE_HOUR / 10;
+        private static final int SUB_BUCKETS = 8;
+        // Latencies up to 2^31 micros (about 35 minutes); anything longer shares the top bucket
+        private static final int BUCKETS = (30 - 1) * SUB_BUCKETS;
+
+        static final double BURN_RATE_ALERT = doubleProperty("queueflex.slo.burnRate", 14.4);
+
+        private final Map<String, Series> series = new LinkedHashMap<>();
+        private final int[] scratch = new int[BUCKETS];
+
+        record Objective(long p99Micros, double availability) {
+
+            static Objective forService(String service) {
+                String prefix = "queueflex.slo.";
+                long p99Ms = Long.getLong(prefix + service + ".p99Ms", Long.getLong(prefix + "p99Ms", 1000));
+                double availability = doubleProperty(prefix + service + ".availability",
+                    doubleProperty(prefix + "availability", 0.995));
+                return new Objective(p99Ms * 1000, availability);
+            }
+        }
+
+        private static final class Slot {
+            long index = -1;
+            int count;
+            int errors;
+            int[] buckets;
+        }
+
+        /** One service endpoint, e.g. queue "GET /queue/get". */
+        final class Series {
+            final String service;
+            final String endpoint;
+            final Objective objective;
+            private final Slot[] slots = new Slot[SLOTS];
+            private boolean latencyAlert;
+            private boolean budgetAlert;
+
+            private Series(String service, String endpoint) {
+                this.service = service;
+                this.endpoint = endpoint;
+                this.objective = Objective.forService(service);
+                for (int i = 0; i < SLOTS; i++) {
+                    slots[i] = new Slot();
+                }
+            }
+
+            private void record(long slotIndex, long micros, boolean ok) {
+                Slot slot = slots[(int) Math.floorMod(slotIndex, (long) SLOTS)];
+                if (slot.index != slotIndex) {
+                    slot.index = slotIndex;
+                    slot.count = 0;
+                    slot.errors = 0;
+                    if (slot.buckets != null) {
+                        Arrays.fill(slot.buckets, 0);
+                    }
+                }
+                slot.count++;
+                if (!ok) {
+                    slot.errors++;
+                    return;
+                }
+                if (slot.buckets == null) {
+                    slot.buckets = new int[BUCKETS];
+                }
+                slot.buckets[bucketOf(micros)]++;
+            }
+
+            /** 99th percentile of successful requests in the window, in micros; -1 without samples. */
+            long p99Micros(int windowSeconds) {
+                synchronized (LatencySlo.this) {
+                    Arrays.fill(scratch, 0);
+                    long total = 0;
+                    long newest = currentSlot();
+                    for (long index = newest - slotsIn(windowSeconds) + 1; index <= newest; index++) {
+                        Slot slot = slots[(int) Math.floorMod(index, (long) SLOTS)];
+                        if (slot.index == index && slot.buckets != null) {
+                            for (int i = 0; i < BUCKETS; i++) {
+                                scratch[i] += slot.buckets[i];
+                                total += slot.buckets[i];
+                            }
+                        }
+                    }
+                    if (total == 0) {
+                        return -1;
+                    }
+                    long rank = (long) Math.ceil(total * 0.99);
+                    long seen = 0;
+                    for (int i = 0; i < BUCKETS; i++) {
+                        seen += scratch[i];
+                        if (seen >= rank) {
+                            return upperBound(i);
+                        }
+                    }
+                    return upperBound(BUCKETS - 1);
+                }
+            }
+
+            /** Error ratio in the window divided by the error budget; 1.0 spends the budget exactly on time. */
+            double burnRate(int windowSeconds) {
+                synchronized (LatencySlo.this) {
+                    long count = 0;
+                    long errors = 0;
+                    long newest = currentSlot();
+                    for (long index = newest - slotsIn(windowSeconds) + 1; index <= newest; index++) {
+                        Slot slot = slots[(int) Math.floorMod(index, (long) SLOTS)];
+                        if (slot.index == index) {
+                            count += slot.count;
+                            errors += slot.errors;
+                        }
+                    }
+                    double budget = 1 - objective.availability();
+                    if (count == 0 || budget <= 0) {
+                        return 0;
+                    }
+                    return ((double) errors / count) / budget;
+                }
+            }
+
+            // Slow over 5 minutes and still slow in the last minute, so one slow probe doesn't page
+            boolean latencyBreached() {
+                long p99 = objective.p99Micros();
+                return p99Micros(FIVE_MINUTES) > p99 && p99Micros(ONE_MINUTE) > p99;
+            }
+
+            // Multiwindow burn: the hour shows real budget loss, the 5 minutes shows it is still happening
+            boolean budgetBurning() {
+                return burnRate(ONE_HOUR) >= BURN_RATE_ALERT && burnRate(FIVE_MINUTES) >= BURN_RATE_ALERT;
+            }
+
+            /** Stores the latency alert state; true when it changed since the last check. */
+            boolean updateLatencyAlert(boolean breached) {
+                boolean changed = breached != latencyAlert;
+                latencyAlert = breached;
+                return changed;
+            }
+
+            /** Stores the burn-rate alert state; true when it changed since the last check. */
+            boolean updateBudgetAlert(boolean burning) {
+                boolean changed = burning != budgetAlert;
+                budgetAlert = burning;
+                return changed;
+            }
+        }
+
+        synchronized void record(String service, String endpoint, long elapsedNanos, boolean ok) {
+            Series target = series.computeIfAbsent(service + " " + endpoint, key -> new Series(service, endpoint));
+            target.record(currentSlot(), Math.max(0, elapsedNanos / 1000), ok);
+        }
+
+        synchronized List<Series> series() {
+            return new ArrayList<>(series.values());
+        }
+
+        private static long currentSlot() {
+            return Math.floorDiv(System.nanoTime(), SLOT_NANOS);
+        }
+
+        private static int slotsIn(int windowSeconds) {
+            return Math.min(SLOTS, windowSeconds / 10);
+        }
+
+        static int bucketOf(long micros) {
+            if (micros < SUB_BUCKETS) {
+                return (int) micros;
+            }
+            int exponent = 63 - Long.numberOfLeadingZeros(micros);
+            if (exponent > 30) {
+                return BUCKETS - 1;
+            }
+            int sub = (int) (micros >>> (exponent - 3)) & (SUB_BUCKETS - 1);
+            return (exponent - 2) * SUB_BUCKETS + sub;
+        }
+
+        // Largest value that lands in the bucket
+        static long upperBound(int bucket) {
+            if (bucket < SUB_BUCKETS) {
+                return bucket;
+            }
+            int exponent = bucket / SUB_BUCKETS + 2;
+            int sub = bucket % SUB_BUCKETS;
+            return ((long) (SUB_BUCKETS + sub + 1) << (exponent - 3)) - 1;
+        }
+
+        private static double doubleProperty(String name, double fallback) {
+            String value = System.getProperty(name);
+            if (value == null) {
+                return fallback;
+            }
+            try {
+                return Double.parseDouble(value);
+            } catch (NumberFormatException e) {
+                return fallback;
+            }
+        }
+    }
+
+    /**
+     * Append-only on-disk history of the health monitor's samples.
+     *
+     * Layout of the store directory:
+     *   series.txt      "<id> <name>" per line; ids are assigned in order and never reused
+     *   YYYYMMDD.seg    one segment per UTC day: a 16-byte header (magic, version,
+     *                   record size, day start in epoch millis) followed by 16-byte
+     *                   records of int millis-into-day, int series id, double value
+     *
+     * Records within a segment are in time order, so a query maps only the segments
+     * its range touches and binary-searches to the first record. Segments older than
+     * queueflex.monitor.historyRetentionDays (90 by default, 0 keeps everything) are
+     * deleted when the writer rolls over to a new day.
+     *
+     * Query from the command line with the monitor's history command:
+     *   java -cp json-20240303.jar src/healthMonitorService.java history [--dir DIR] series
+     *   ... history [--dir DIR] query PATTERN [--last 24h | --from ISO --to ISO] [--step 1m] [--agg avg]
+     * e.g. waiting bookings per service over the last day at one-minute resolution:
+     *   ... history query 'queue_waiting:*' --last 24h --step 1m
+     */
+    private static final class TimeSeriesStore implements Closeable {
+
+        private static final int MAGIC = 0x51465453; // "QFTS"
+        private static final short VERSION = 1;
+        private static final int HEADER_SIZE = 16;
+        private static final int RECORD_SIZE = 16;
+        private static final long DAY_MILLIS = 86_400_000L;
+        private static final DateTimeFormatter SEGMENT_NAME = DateTimeFormatter.ofPattern("yyyyMMdd").withZone(ZoneOffset.UTC);
+        private static final Pattern SEGMENT_FILE = Pattern.compile("\\d{8}\\.seg");
+
+        private final Path directory;
+        private final int retentionDays;
+        private final Map<String, Integer> seriesIds = new HashMap<>();
+        private final BufferedWriter seriesFile;
+        private int nextSeriesId;
+
+        // Samples of the cycle in progress, written out by commit
+        private ByteBuffer pending = ByteBuffer.allocate(RECORD_SIZE * 64);
+        private FileChannel segment;
+        private long segmentStart = Long.MIN_VALUE;
+        private long lastWritten = Long.MIN_VALUE;
+
+        private TimeSeriesStore(Path directory, int retentionDays) throws IOException {
+            this.directory = directory;
+            this.retentionDays = retentionDays;
+            Files.createDirectories(directory);
+            List<String> names = seriesNames(directory);
+            for (int id = 0; id < names.size(); id++) {
+                if (names.get(id) != null) {
+                    seriesIds.put(names.get(id), id);
+                }
+            }
+            nextSeriesId = names.size();
+            Path file = directory.resolve("series.txt");
+            boolean tornLine = Files.isRegularFile(file) && Files.size(file) > 0 && !endsWithNewline(file);
+            this.seriesFile = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            if (tornLine) {
+                seriesFile.newLine();
+            }
+        }
+
+        static TimeSeriesStore open(Path directory) throws IOException {
+            return new TimeSeriesStore(directory, Integer.getInteger("queueflex.monitor.historyRetentionDays", 90));
+        }
+
+        static Path defaultDirectory() {
+            return Paths.get(System.getProperty("queueflex.monitor.historyDir",
+                Paths.get(System.getProperty("user.home"), ".queueflex", "history").toString()));
+        }
+
+        // ==========================================
+        // WRITING
+        // ==========================================
+
+        /** Buffers one sample for the current cycle. Series names look like "queue_waiting:<service_id>". */
+        void add(String series, double value) throws IOException {
+            Integer id = seriesIds.get(series);
+            if (id == null) {
+                id = nextSeriesId++;
+                // The name is on disk before any record refers to it
+                seriesFile.write(id + " " + series);
+                seriesFile.newLine();
+                seriesFile.flush();
+                seriesIds.put(series, id);
+            }
+            if (pending.remaining() < RECORD_SIZE) {
+                pending = ByteBuffer.allocate(pending.capacity() * 2).put(pending.flip());
+            }
+            pending.putInt(0).putInt(id).putDouble(value);
+        }
+
+        /** Writes the buffered samples stamped with the given time, rolling to a new segment at midnight UTC. */
+        void commit(long timestampMillis) throws IOException {
+            if (pending.position() == 0) {
+                return;
+            }
+            // Keep segments sorted even if the wall clock steps back
+            long timestamp = Math.max(timestampMillis, lastWritten);
+            long day = Math.floorDiv(timestamp, DAY_MILLIS) * DAY_MILLIS;
+            if (day != segmentStart) {
+                // Reopening a segment after a restart picks up its last timestamp
+                roll(day);
+                timestamp = Math.max(timestamp, lastWritten);
+            }
+            int offset = (int) (timestamp - segmentStart);
+            pending.flip();
+            for (int position = 0; position < pending.limit(); position += RECORD_SIZE) {
+                pending.putInt(position, offset);
+            }
+            long end = segment.size();
+            while (pending.hasRemaining()) {
+                end += segment.write(pending, end);
+            }
+            pending.clear();
+            lastWritten = timestamp;
+        }
+
+        private void roll(long day) throws IOException {
+            if (segment != null) {
+                segment.close();
+            }
+            Path file = directory.resolve(SEGMENT_NAME.format(Instant.ofEpochMilli(day)) + ".seg");
+            segment = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            segmentStart = day;
+            if (segment.size() < HEADER_SIZE) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+                    .putInt(MAGIC).putShort(VERSION).putShort((short) RECORD_SIZE).putLong(day);
+                segment.truncate(0);
+                segment.write(header.flip(), 0);
+            } else {
+                // Drop a record torn by a crash mid-write
+                long records = (segment.size() - HEADER_SIZE) / RECORD_SIZE;
+                segment.truncate(HEADER_SIZE + records * RECORD_SIZE);
+                if (records > 0) {
+                    ByteBuffer last = ByteBuffer.allocate(4);
+                    segment.read(last, HEADER_SIZE + (records - 1) * RECORD_SIZE);
+                    lastWritten = Math.max(lastWritten, day + last.flip().getInt());
+                }
+            }
+            pruneSegments(day);
+        }
+
+        private void pruneSegments(long today) throws IOException {
+            if (retentionDays <= 0) {
+                return;
+            }
+            long oldest = today - retentionDays * DAY_MILLIS;
+            for (Path file : segmentFiles(directory)) {
+                if (segmentDay(file) < oldest) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (segment != null) {
+                segment.close();
+            }
+            seriesFile.close();
+        }
+
+        // ==========================================
+        // QUERYING
+        // ==========================================
+
+        enum Aggregate { AVG, MIN, MAX, LAST, SUM, COUNT }
+
+        /** Called per output point, in series order then time order. */
+        interface PointVisitor {
+            void point(String series, long timestampMillis, double value);
+        }
+
+        /**
+         * Visits samples of the series matching the glob pattern ('*' matches anything) in [from, to).
+         * A step of 0 returns raw samples; otherwise samples are aggregated into step-wide buckets
+         * aligned to multiples of step, and empty buckets are skipped. Returns the number of records scanned.
+         */
+        static long query(Path directory, String pattern, long from, long to, long step, Aggregate aggregate,
+                          PointVisitor visitor) throws IOException {
+            List<String> names = seriesNames(directory);
+            Pattern glob = Pattern.compile(Pattern.quote(pattern).replace("*", "\\E.*\\Q"));
+            boolean[] selected = new boolean[names.size()];
+            for (int id = 0; id < names.size(); id++) {
+                selected[id] = names.get(id) != null && glob.matcher(names.get(id)).matches();
+            }
+
+            if (step > 0) {
+                from = Math.floorDiv(from, step) * step;
+            }
+            int buckets = step > 0 ? (int) Math.min(Integer.MAX_VALUE, (to - from + step - 1) / step) : 0;
+            // Ids are dense, so accumulators are indexed by id
+            Series[] series = new Series[names.size()];
+            long scanned = 0;
+            List<Path> files = segmentFiles(directory);
+            files.sort(null);
+            for (Path file : files) {
+                long day = segmentDay(file);
+                if (day + DAY_MILLIS <= from || day >= to) {
+                    continue;
+                }
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                    long size = channel.size();
+                    if (size < HEADER_SIZE) {
+                        continue;
+                    }
+                    MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+                    if (map.getInt(0) != MAGIC || map.getShort(6) != RECORD_SIZE) {
+                        throw new IOException("Not a history segment: " + file);
+                    }
+                    long base = map.getLong(8);
+                    int records = (int) ((size - HEADER_SIZE) / RECORD_SIZE);
+                    int index = firstAtOrAfter(map, records, from - base);
+                    for (; index < records; index++) {
+                        int at = HEADER_SIZE + index * RECORD_SIZE;
+                        long timestamp = base + map.getInt(at);
+                        if (timestamp >= to) {
+                            break;
+                        }
+                        scanned++;
+                        int id = map.getInt(at + 4);
+                        if (id >= selected.length || !selected[id]) {
+                            continue;
+                        }
+                        double value = map.getDouble(at + 8);
+                        Series target = series[id];
+                        if (target == null) {
+                            target = series[id] = new Series(buckets);
+                        }
+                        if (step > 0) {
+                            target.add((int) ((timestamp - from) / step), value);
+                        } else {
+                            target.raw(timestamp, value);
+                        }
+                    }
+                }
+            }
+
+            List<Integer> ids = new ArrayList<>();
+            for (int id = 0; id < series.length; id++) {
+                if (series[id] != null) {
+                    ids.add(id);
+                }
+            }
+            ids.sort((a, b) -> names.get(a).compareTo(names.get(b)));
+            for (int id : ids) {
+                series[id].emit(names.get(id), from, step, aggregate, visitor);
+            }
+            return scanned;
+        }
+
+        // Binary search on the millis-into-day column
+        private static int firstAtOrAfter(MappedByteBuffer map, int records, long offset) {
+            int low = 0;
+            int high = records;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (map.getInt(HEADER_SIZE + mid * RECORD_SIZE) < offset) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        /** Query-side accumulator for one series. */
+        private static final class Series {
+            final double[] sum;
+            final double[] min;
+            final double[] max;
+            final double[] last;
+            final int[] count;
+            long[] rawTimes;
+            double[] rawValues;
+            int rawSize;
+
+            Series(int buckets) {
+                sum = new double[buckets];
+                min = new double[buckets];
+                max = new double[buckets];
+                last = new double[buckets];
+                count = new int[buckets];
+            }
+
+            void add(int bucket, double value) {
+                if (count[bucket] == 0) {
+                    min[bucket] = value;
+                    max[bucket] = value;
+                } else {
+                    min[bucket] = Math.min(min[bucket], value);
+                    max[bucket] = Math.max(max[bucket], value);
+                }
+                sum[bucket] += value;
+                last[bucket] = value;
+                count[bucket]++;
+            }
+
+            void raw(long timestamp, double value) {
+                if (rawTimes == null) {
+                    rawTimes = new long[256];
+                    rawValues = new double[256];
+                } else if (rawSize == rawTimes.length) {
+                    rawTimes = Arrays.copyOf(rawTimes, rawSize * 2);
+                    rawValues = Arrays.copyOf(rawValues, rawSize * 2);
+                }
+                rawTimes[rawSize] = timestamp;
+                rawValues[rawSize++] = value;
+            }
+
+            void emit(String name, long from, long step, Aggregate aggregate, PointVisitor visitor) {
+                if (step <= 0) {
+                    for (int i = 0; i < rawSize; i++) {
+                        visitor.point(name, rawTimes[i], rawValues[i]);
+                    }
+                    return;
+                }
+                for (int bucket = 0; bucket < count.length; bucket++) {
+                    if (count[bucket] == 0) {
+                        continue;
+                    }
+                    double value;
+                    switch (aggregate) {
+                        case MIN: value = min[bucket]; break;
+                        case MAX: value = max[bucket]; break;
+                        case LAST: value = last[bucket]; break;
+                        case SUM: value = sum[bucket]; break;
+                        case COUNT: value = count[bucket]; break;
+                        default: value = sum[bucket] / count[bucket];
+                    }
+                    visitor.point(name, from + bucket * step, value);
+                }
+            }
+        }
+
+        // ==========================================
+        // FILES
+        // ==========================================
+
+        private static boolean endsWithNewline(Path file) throws IOException {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                ByteBuffer last = ByteBuffer.allocate(1);
+                channel.read(last, channel.size() - 1);
+                return last.get(0) == '\n';
+            }
+        }
+
+        // Index is the series id, null where a line was lost
+        private static List<String> seriesNames(Path directory) throws IOException {
+            List<String> names = new ArrayList<>();
+            Path file = directory.resolve("series.txt");
+            if (!Files.isRegularFile(file)) {
+                return names;
+            }
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                int space = line.indexOf(' ');
+                if (space <= 0) {
+                    continue;
+                }
+                int id;
+                try {
+                    id = Integer.parseInt(line.substring(0, space));
+                } catch (NumberFormatException e) {
+                    continue;
+                }
+                while (names.size() <= id) {
+                    names.add(null);
+                }
+                names.set(id, line.substring(space + 1));
+            }
+            return names;
+        }
+
+        private static List<Path> segmentFiles(Path directory) throws IOException {
+            List<Path> files = new ArrayList<>();
+            if (!Files.isDirectory(directory)) {
+                return files;
+            }
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+                for (Path file : stream) {
+                    if (SEGMENT_FILE.matcher(file.getFileName().toString()).matches()) {
+                        files.add(file);
+                    }
+                }
+            }
+            return files;
+        }
+
+        private static long segmentDay(Path file) {
+            String name = file.getFileName().toString();
+            return LocalDate.parse(name.substring(0, 8), DateTimeFormatter.BASIC_ISO_DATE)
+                .atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+        }
+
+        // ==========================================
+        // COMMAND LINE
+        // ==========================================
+
+        // Arguments after "history" on the monitor's command line
+        static void runCommand(String[] args) throws IOException {
+            Path directory = defaultDirectory();
+            List<String> rest = new ArrayList<>();
+            Map<String, String> options = new HashMap<>();
+            for (int i = 0; i < args.length; i++) {
+                if (args[i].startsWith("--") && i + 1 < args.length) {
+                    options.put(args[i].substring(2), args[++i]);
+                } else {
+                    rest.add(args[i]);
+                }
+            }
+            if (options.containsKey("dir")) {
+                directory = Paths.get(options.get("dir"));
+            }
+
+            if (rest.size() == 1 && rest.get(0).equals("series")) {
+                for (String name : seriesNames(directory)) {
+                    if (name != null) {
+                        System.out.println(name);
+                    }
+                }
+                return;
+            }
+            if (rest.size() != 2 || !rest.get(0).equals("query")) {
+                System.err.println("Usage: history [--dir DIR] series");
+                System.err.println("       history [--dir DIR] query PATTERN [--last 24h | --from ISO --to ISO]"
+                    + " [--step 1m] [--agg avg|min|max|last|sum|count]");
+                System.exit(2);
+            }
+
+            long now = System.currentTimeMillis();
+            long to = options.containsKey("to") ? Instant.parse(options.get("to")).toEpochMilli() : now;
+            long from = options.containsKey("from") ? Instant.parse(options.get("from")).toEpochMilli()
+                : to - parseDuration(options.getOrDefault("last", "1h"));
+            long step = options.containsKey("step") ? parseDuration(options.get("step")) : 0;
+            Aggregate aggregate = Aggregate.valueOf(options.getOrDefault("agg", "avg").toUpperCase());
+
+            long started = System.nanoTime();
+            StringBuilder out = new StringBuilder("time,series,value\n");
+            long scanned = query(directory, rest.get(1), from, to, step, aggregate, (series, timestamp, value) ->
+                out.append(Instant.ofEpochMilli(timestamp)).append(',').append(series).append(',').append(value).append('\n'));
+            System.out.print(out);
+            System.err.printf("# %d records scanned in %.1f ms%n", scanned, (System.nanoTime() - started) / 1e6);
+        }
+
+        // "90s", "15m", "24h", "30d" or plain millis
+        private static long parseDuration(String value) {
+            char unit = value.charAt(value.length() - 1);
+            if (Character.isDigit(unit)) {
+                return Long.parseLong(value);
+            }
+            long amount = Long.parseLong(value.substring(0, value.length() - 1));
+            switch (unit) {
+                case 's': return amount * 1000;
+                case 'm': return amount * 60_000;
+                case 'h': return amount * 3_600_000;
+                case 'd': return amount * DAY_MILLIS;
+                default: throw new IllegalArgumentException("Unknown duration unit in " + value);
+            }
+        }
+    }
+
+    /**
+     * Picks the delay before the next health check from how the recent ones went.
+     *
+     * Degraded (a service down or over its p99 objective) or flapping (healthy/degraded
+     * changed at least 3 times in the last 10 checks): start at the minimum interval
+     * and stretch by 1.5x per check up to the degraded ceiling. Healthy: double from
+     * the minimum with every healthy check up to the maximum. Each delay carries
+     * +/-10% jitter so monitors started together drift apart, and is counted from
+     * the start of the last check, never dropping below half the minimum interval.
+     *
+     *   queueflex.monitor.minIntervalMs=1000
+     *   queueflex.monitor.degradedMaxIntervalMs=5000
+     *   queueflex.monitor.maxIntervalMs=60000
+     */
+    private static final class ProbeCadence {
+
+        private static final int FLAP_WINDOW = 10;
+        private static final int FLAP_CHANGES = 3;
+
+        final long minIntervalMillis = Long.getLong("queueflex.monitor.minIntervalMs", 1000);
+        final long degradedMaxIntervalMillis = Long.getLong("queueflex.monitor.degradedMaxIntervalMs", 5000);
+        final long maxIntervalMillis = Long.getLong("queueflex.monitor.maxIntervalMs", 60_000);
+
+        private int healthyStreak;
+        private int degradedStreak;
+        private Boolean lastHealthy;
+        // Bit i is set when the check i checks ago changed state
+        private int changes;
+
+        /** Delay until the next check, given the outcome and duration of the one that just finished. */
+        long nextDelayMillis(boolean healthy, long cycleMillis) {
+            boolean changed = lastHealthy != null && lastHealthy != healthy;
+            lastHealthy = healthy;
+            changes = (changes << 1 | (changed ? 1 : 0)) & ((1 << FLAP_WINDOW) - 1);
+
+            double interval;
+            if (!healthy || flapping()) {
+                healthyStreak = 0;
+                interval = Math.min(degradedMaxIntervalMillis, minIntervalMillis * Math.pow(1.5, degradedStreak++));
+            } else {
+                degradedStreak = 0;
+                interval = Math.min(maxIntervalMillis, minIntervalMillis * Math.pow(2, ++healthyStreak));
+            }
+            double jitter = 0.9 + ThreadLocalRandom.current().nextDouble() * 0.2;
+            return Math.max((long) (interval * jitter) - cycleMillis, minIntervalMillis / 2);
+        }
+
+        boolean flapping() {
+            return Integer.bitCount(changes) >= FLAP_CHANGES;
+        }
+
+        // Spread the first check over one minimum interval
+        long initialDelayMillis() {
+            return ThreadLocalRandom.current().nextLong(minIntervalMillis + 1);
+        }
+    }
+}
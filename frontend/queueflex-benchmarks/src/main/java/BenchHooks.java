@@ -0,0 +1,92 @@
+// BenchHooks.java
+import com.queueflex.bench.FrontendHooks;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import org.json.JSONObject;
+
+/**
+ * FrontendHooks bound straight to the client. It sits in the unnamed package
+ * with the client classes, so it can call them (package-private hooks
+ * included) directly, and a signature change in the client breaks this
+ * module's build instead of failing when a benchmark starts.
+ */
+public final class BenchHooks implements FrontendHooks {
+
+    @Override
+    public int forEachObject(Reader in, Consumer<JSONObject> visitor) throws IOException {
+        return JsonStreamReader.forEachObject(in, visitor);
+    }
+
+    @Override
+    public int forEachObject(InputStream in, Consumer<JSONObject> visitor) throws IOException {
+        return JsonStreamReader.forEachObject(in, visitor);
+    }
+
+    @Override
+    public Object queueItem(JSONObject json) {
+        return QueueItem.fromJson(json);
+    }
+
+    @Override
+    public Object service(JSONObject json) {
+        return Service.fromJson(json);
+    }
+
+    @Override
+    public Object queueStats(JSONObject json) {
+        return QueueStats.fromJson(json);
+    }
+
+    @Override
+    public List<?> decodeList(String body, Function<JSONObject, ?> decoder) {
+        return ApiClient.decodeList(ApiTransport.Service.QUEUE, "/queue/get", body, decoder);
+    }
+
+    @Override
+    public Object newQueueStore() {
+        return new QueueStore(since -> CompletableFuture.failedFuture(new IllegalStateException("offline")));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void seed(Object store, List<?> items) {
+        ((QueueStore) store).seed((List<QueueItem>) items);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Object apply(Object store, List<?> events) {
+        return ((QueueStore) store).apply((List<QueueEvent>) events);
+    }
+
+    @Override
+    public List<?> items(Object store) {
+        return ((QueueStore) store).items();
+    }
+
+    @Override
+    public List<?> forService(Object store, String serviceId) {
+        return ((QueueStore) store).forService(serviceId);
+    }
+
+    @Override
+    public Object queueEvent(String id, String type, Object item) {
+        return new QueueEvent(id, QueueEvent.Type.fromCode(type), (QueueItem) item);
+    }
+
+    @Override
+    public void printTicket(Object item) {
+        QueueTicketGenerator.printTicketContent((QueueItem) item);
+    }
+
+    @Override
+    public void writeTicket(PrintWriter writer, Object item) {
+        QueueTicketGenerator.writeTicketContent(writer, (QueueItem) item);
+    }
+}
@@ -0,0 +1,110 @@
+// AggregationBenchmark.java
+package com.queueflex.bench;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Client-side aggregation in QueueStore: indexing a full listing by id and
+ * by service, folding pushed change batches into it, and the snapshot
+ * copies the screens take on every render.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AggregationBenchmark {
+
+    // Share of the listing touched by each pushed batch
+    private static final int CHANGE_PERCENT = 1;
+
+    @Param({"10", "1000", "10000", "100000"})
+    int items;
+
+    @Param({"5", "50"})
+    int services;
+
+    List<Object> listing;
+    Object store;
+    List<Object> forward;
+    List<Object> backward;
+    boolean flip;
+
+    @Setup
+    public void generate() {
+        listing = new ArrayList<>(items);
+        List<JSONObject> raw = new ArrayList<>(items);
+        Frontend.forEachObject(new StringReader(Payloads.queueItems(items, services)), json -> {
+            raw.add(json);
+            listing.add(Frontend.queueItem(json));
+        });
+
+        // Two batches that undo each other, so every call applies real changes:
+        // forward moves some bookings on and drops others, backward restores them
+        forward = new ArrayList<>();
+        backward = new ArrayList<>();
+        SplittableRandom random = new SplittableRandom(11);
+        int batch = Math.max(2, items * CHANGE_PERCENT / 100);
+        for (int i = 0; i < batch; i++) {
+            int index = random.nextInt(items);
+            JSONObject json = raw.get(index);
+            Object original = listing.get(index);
+            String id = "e" + i;
+            if (i % 4 == 3) {
+                forward.add(Frontend.queueEvent(id, "removed", original));
+                backward.add(Frontend.queueEvent(id, "added", original));
+            } else {
+                JSONObject moved = new JSONObject(json.toMap());
+                moved.put("status", "in-progress");
+                moved.put("position", json.optInt("position") + 1);
+                forward.add(Frontend.queueEvent(id, "status_changed", Frontend.queueItem(moved)));
+                backward.add(Frontend.queueEvent(id, "status_changed", original));
+            }
+        }
+
+        store = Frontend.newQueueStore();
+        Frontend.seed(store, listing);
+    }
+
+    // Full listing into a fresh store: id map plus per-service ordered index
+    @Benchmark
+    public Object seed() {
+        Object fresh = Frontend.newQueueStore();
+        Frontend.seed(fresh, listing);
+        return fresh;
+    }
+
+    // One pushed batch touching ~1% of the listing
+    @Benchmark
+    public Object applyEvents() {
+        flip = !flip;
+        return Frontend.apply(store, flip ? forward : backward);
+    }
+
+    @Benchmark
+    public List<?> items() {
+        return Frontend.items(store);
+    }
+
+    @Benchmark
+    public List<?> forService() {
+        return Frontend.forService(store, Payloads.serviceId(0));
+    }
+}
@@ -0,0 +1,34 @@
+// BenchmarkRunner.java
+package com.queueflex.bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of benchmarks.jar. Takes the usual JMH command line
+ * (benchmark regex, -p, -f, -wi, -rf json, ...) and adds the gc profiler
+ * unless another profiler is requested, so every run reports allocation
+ * rate and bytes per operation next to throughput and average time.
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions cli = new CommandLineOptions(args);
+        if (cli.shouldHelp() || cli.shouldList() || cli.shouldListProfilers() || cli.shouldListResultFormats()) {
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(cli);
+        if (cli.getProfilers().isEmpty()) {
+            options.addProfiler(GCProfiler.class);
+        }
+        if (cli.getIncludes().isEmpty()) {
+            options.include("com\\.queueflex\\.bench\\..*");
+        }
+        new Runner(options.build()).run();
+    }
+}
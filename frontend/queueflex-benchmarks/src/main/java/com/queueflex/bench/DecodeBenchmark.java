@@ -0,0 +1,88 @@
+// DecodeBenchmark.java
+package com.queueflex.bench;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Response decoding: the list, streamed and catalog paths ApiClient uses,
+ * plus the whole-document JSONArray parse the admin screen used before
+ * decoding became incremental, as a baseline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DecodeBenchmark {
+
+    @Param({"10", "1000", "10000", "100000"})
+    int items;
+
+    @Param({"5", "50"})
+    int services;
+
+    String queueBody;
+    byte[] queueBytes;
+    String servicesBody;
+    String statsBody;
+
+    @Setup
+    public void generate() {
+        queueBody = Payloads.queueItems(items, services);
+        queueBytes = Payloads.utf8(queueBody);
+        servicesBody = Payloads.services(services);
+        statsBody = Payloads.stats(items, services);
+    }
+
+    // ApiClient.decodeList over a buffered body (catalog, delta and cached fetches)
+    @Benchmark
+    public List<?> decodeList() {
+        return Frontend.decodeList(queueBody, Frontend::queueItem);
+    }
+
+    // Straight off the response stream into a visitor, as fetchListAsync does
+    @Benchmark
+    public int decodeStreamed(Blackhole blackhole) {
+        return Frontend.forEachObject(new ByteArrayInputStream(queueBytes),
+            json -> blackhole.consume(Frontend.queueItem(json)));
+    }
+
+    // Whole-document parse into a JSONArray first, then records
+    @Benchmark
+    public List<?> decodeJsonArray() {
+        JSONArray array = new JSONArray(queueBody);
+        List<Object> result = new ArrayList<>(array.length());
+        for (int i = 0; i < array.length(); i++) {
+            result.add(Frontend.queueItem(array.getJSONObject(i)));
+        }
+        return result;
+    }
+
+    @Benchmark
+    public List<?> decodeServices() {
+        return Frontend.decodeList(servicesBody, Frontend::service);
+    }
+
+    @Benchmark
+    public Object decodeStats() {
+        return Frontend.queueStats(new JSONObject(statsBody));
+    }
+}
@@ -0,0 +1,119 @@
+// Frontend.java
+package com.queueflex.bench;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import org.json.JSONObject;
+
+/**
+ * Typed entry points into the client classes under test.
+ * The client lives in the unnamed package, which JMH benchmarks (and any
+ * named package) cannot reference directly, so every call goes through
+ * BenchHooks, the one FrontendHooks implementation, compiled in the unnamed
+ * package of this module. The instance is a static final with a single
+ * implementation, so the JIT inlines straight through it and measurements
+ * see the client code itself.
+ */
+final class Frontend {
+
+    private static final FrontendHooks HOOKS = load();
+
+    private Frontend() {
+    }
+
+    // ==========================================
+    // DECODING
+    // ==========================================
+
+    static int forEachObject(Reader in, Consumer<JSONObject> visitor) {
+        try {
+            return HOOKS.forEachObject(in, visitor);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    static int forEachObject(InputStream in, Consumer<JSONObject> visitor) {
+        try {
+            return HOOKS.forEachObject(in, visitor);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    static Object queueItem(JSONObject json) {
+        return HOOKS.queueItem(json);
+    }
+
+    static Object service(JSONObject json) {
+        return HOOKS.service(json);
+    }
+
+    static Object queueStats(JSONObject json) {
+        return HOOKS.queueStats(json);
+    }
+
+    static List<?> decodeList(String body, Function<JSONObject, ?> decoder) {
+        return HOOKS.decodeList(body, decoder);
+    }
+
+    // ==========================================
+    // QUEUE STORE
+    // ==========================================
+
+    static Object newQueueStore() {
+        return HOOKS.newQueueStore();
+    }
+
+    static void seed(Object store, List<?> items) {
+        HOOKS.seed(store, items);
+    }
+
+    static Object apply(Object store, List<?> events) {
+        return HOOKS.apply(store, events);
+    }
+
+    static List<?> items(Object store) {
+        return HOOKS.items(store);
+    }
+
+    static List<?> forService(Object store, String serviceId) {
+        return HOOKS.forService(store, serviceId);
+    }
+
+    static Object queueEvent(String id, String type, Object item) {
+        return HOOKS.queueEvent(id, type, item);
+    }
+
+    // ==========================================
+    // TICKETS
+    // ==========================================
+
+    static void printTicket(Object item) {
+        HOOKS.printTicket(item);
+    }
+
+    static void writeTicket(PrintWriter writer, Object item) {
+        HOOKS.writeTicket(writer, item);
+    }
+
+    // ==========================================
+    // HELPERS
+    // ==========================================
+
+    // The one lookup by name: BenchHooks is compiled with this module, so it can't drift from it
+    private static FrontendHooks load() {
+        try {
+            return (FrontendHooks) Class.forName("BenchHooks", true, Frontend.class.getClassLoader())
+                .getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException ex) {
+            throw new IllegalStateException("BenchHooks is not on the classpath", ex);
+        }
+    }
+}
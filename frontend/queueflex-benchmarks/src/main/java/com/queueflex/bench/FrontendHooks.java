@@ -0,0 +1,51 @@
+// FrontendHooks.java
+package com.queueflex.bench;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import org.json.JSONObject;
+
+/**
+ * The client operations the benchmarks measure. Client types appear as
+ * Object here because they live in the unnamed package; the implementation,
+ * BenchHooks, lives there too and calls the client directly.
+ */
+public interface FrontendHooks {
+
+    int forEachObject(Reader in, Consumer<JSONObject> visitor) throws IOException;
+
+    int forEachObject(InputStream in, Consumer<JSONObject> visitor) throws IOException;
+
+    Object queueItem(JSONObject json);
+
+    Object service(JSONObject json);
+
+    Object queueStats(JSONObject json);
+
+    // ApiClient's list decode, exactly as the catalog and list fetches run it
+    List<?> decodeList(String body, Function<JSONObject, ?> decoder);
+
+    // A store that never fetches; benchmarks feed it through seed and apply
+    Object newQueueStore();
+
+    void seed(Object store, List<?> items);
+
+    Object apply(Object store, List<?> events);
+
+    List<?> items(Object store);
+
+    List<?> forService(Object store, String serviceId);
+
+    Object queueEvent(String id, String type, Object item);
+
+    // Console ticket; writes to System.out
+    void printTicket(Object item);
+
+    // Exported ticket file content
+    void writeTicket(PrintWriter writer, Object item);
+}
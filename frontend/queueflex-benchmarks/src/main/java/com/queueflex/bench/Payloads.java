@@ -0,0 +1,102 @@
+// Payloads.java
+package com.queueflex.bench;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.SplittableRandom;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+/**
+ * Deterministic synthetic backend payloads shaped like the Flask services'
+ * responses: /queue/get and /admin/queue/all bookings, the /services catalog
+ * and /admin/queue/stats. The same seed always yields the same bytes so runs
+ * stay comparable.
+ */
+final class Payloads {
+
+    private static final String[] FIRST_NAMES = {
+        "Aarav", "Priya", "Rohan", "Ananya", "Vikram", "Sneha", "Arjun", "Kavya", "Rahul", "Meera"
+    };
+    private static final String[] LAST_NAMES = {
+        "Sharma", "Patel", "Iyer", "Reddy", "Gupta", "Nair", "Singh", "Das", "Mehta", "Joshi"
+    };
+    private static final String[] PURPOSES = {
+        "Account opening", "Loan enquiry", "Prescription refill", "General consultation",
+        "Document verification", "Card replacement", "Follow-up visit", "Address change"
+    };
+    private static final String[] CATEGORIES = {"Banking", "Healthcare", "Government", "Retail", "Education"};
+    private static final String[] STATUSES = {"waiting", "waiting", "waiting", "in-progress", "completed", "cancelled"};
+    private static final DateTimeFormatter RFC_1123 = DateTimeFormatter.RFC_1123_DATE_TIME.withZone(ZoneOffset.UTC);
+    private static final long EPOCH = Instant.parse("2026-01-05T09:00:00Z").toEpochMilli();
+
+    private Payloads() {
+    }
+
+    static String serviceId(int index) {
+        return String.format("svc-%04d", index);
+    }
+
+    static JSONObject queueItem(SplittableRandom random, int index, int services) {
+        int service = random.nextInt(services);
+        JSONObject json = new JSONObject();
+        json.put("queue_id", String.format("%08x-%04x-4%03x-%04x-%012x", index, random.nextInt(0x10000),
+            random.nextInt(0x1000), 0x8000 | random.nextInt(0x4000), random.nextLong(1L << 48)));
+        json.put("user_id", 1 + random.nextInt(50_000));
+        json.put("service_id", serviceId(service));
+        json.put("name", FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " "
+            + LAST_NAMES[random.nextInt(LAST_NAMES.length)]);
+        json.put("purpose", PURPOSES[random.nextInt(PURPOSES.length)]);
+        json.put("serviceType", CATEGORIES[service % CATEGORIES.length]);
+        json.put("position", 1 + index / services);
+        json.put("status", STATUSES[random.nextInt(STATUSES.length)]);
+        json.put("created_at", RFC_1123.format(Instant.ofEpochMilli(EPOCH + index * 7_000L)));
+        return json;
+    }
+
+    // JSON array of bookings spread over the given number of services
+    static String queueItems(int count, int services) {
+        SplittableRandom random = new SplittableRandom(42);
+        JSONArray array = new JSONArray();
+        for (int i = 0; i < count; i++) {
+            array.put(queueItem(random, i, services));
+        }
+        return array.toString();
+    }
+
+    static String services(int count) {
+        SplittableRandom random = new SplittableRandom(7);
+        JSONArray array = new JSONArray();
+        for (int i = 0; i < count; i++) {
+            JSONObject json = new JSONObject();
+            json.put("service_id", serviceId(i));
+            json.put("name", CATEGORIES[i % CATEGORIES.length] + " counter " + (i + 1));
+            json.put("description", "Walk-in and booked visits for " + PURPOSES[i % PURPOSES.length].toLowerCase());
+            json.put("category", CATEGORIES[i % CATEGORIES.length]);
+            json.put("max_capacity", 20 + random.nextInt(80));
+            json.put("estimated_time_per_person", 5 + random.nextInt(25));
+            json.put("current_queue_count", random.nextInt(100));
+            json.put("status", random.nextInt(10) == 0 ? "inactive" : "active");
+            array.put(json);
+        }
+        return array.toString();
+    }
+
+    static String stats(int items, int services) {
+        JSONObject byService = new JSONObject();
+        for (int i = 0; i < services; i++) {
+            byService.put(CATEGORIES[i % CATEGORIES.length] + " " + (i + 1), items / services);
+        }
+        JSONObject json = new JSONObject();
+        json.put("total_items", items);
+        json.put("waiting", items / 2);
+        json.put("by_service_type", byService);
+        return json.toString();
+    }
+
+    static byte[] utf8(String body) {
+        return body.getBytes(StandardCharsets.UTF_8);
+    }
+}
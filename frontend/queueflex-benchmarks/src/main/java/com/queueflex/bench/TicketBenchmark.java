@@ -0,0 +1,75 @@
+// TicketBenchmark.java
+package com.queueflex.bench;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.StringReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Ticket rendering in QueueTicketGenerator for a batch of bookings with
+ * mixed statuses, as "print all tickets" does: the console layout and the
+ * exported file layout. Output goes to null sinks so only formatting is
+ * measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TicketBenchmark {
+
+    @Param({"1", "100", "10000"})
+    int tickets;
+
+    List<Object> bookings;
+    PrintStream console;
+
+    @Setup
+    public void generate() {
+        bookings = new ArrayList<>(tickets);
+        Frontend.forEachObject(new StringReader(Payloads.queueItems(tickets, 5)),
+            json -> bookings.add(Frontend.queueItem(json)));
+        console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream(), false, StandardCharsets.UTF_8));
+    }
+
+    @TearDown
+    public void restoreConsole() {
+        System.setOut(console);
+    }
+
+    @Benchmark
+    public void printTickets() {
+        for (Object booking : bookings) {
+            Frontend.printTicket(booking);
+        }
+    }
+
+    @Benchmark
+    public void writeTickets() {
+        PrintWriter writer = new PrintWriter(Writer.nullWriter());
+        for (Object booking : bookings) {
+            Frontend.writeTicket(writer, booking);
+        }
+        writer.flush();
+    }
+}
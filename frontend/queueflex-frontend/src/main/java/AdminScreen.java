@@ -1,4 +1,8 @@
  
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.collections.transformation.SortedList;
 import javafx.geometry.*;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
@@ -6,18 +10,47 @@ import javafx.scene.layout.*;
 import javafx.scene.paint.Color;
 import javafx.scene.text.*;
 import javafx.stage.Stage;
-import org.json.*;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 public class AdminScreen {
+    private static final long REFRESH_INTERVAL_MS = Long.getLong("queueflex.refresh.adminMs", 10000);
+    private static final long PUSH_RESYNC_INTERVAL_MS = 60000;
+    private static final String SNAPSHOT_SCOPE = "admin";
+    private static final DateTimeFormatter CREATED_FORMAT =
+        DateTimeFormatter.ofPattern("dd MMM yyyy, HH:mm").withZone(ZoneId.systemDefault());
+    
     private Stage stage;
     private ApiClient apiClient;
-    private VBox allQueuesBox;
+    private TableView<QueueItem> allQueuesTable;
+    private final ObservableList<QueueItem> queueItems = FXCollections.observableArrayList();
+    private final QueueStore queueStore;
+    private final SnapshotCache snapshots = SnapshotCache.fromSystemProperties();
+    // Last rendered data, persisted so the next launch can paint it immediately
+    private List<Service> shownServices = List.of();
+    private List<QueueItem> shownQueue = List.of();
     private VBox servicesBox;
+    private KeyedChildren<Service> serviceCards;
     private GridPane statsGrid;
     
+    // Latest request per panel; a newer refresh supersedes (and cancels) the older one
+    private CompletableFuture<QueueStore.Change> pendingQueues;
+    private CompletableFuture<QueueStats> pendingStats;
+    private CompletableFuture<List<Service>> pendingServices;
+    private final FrameCoalescer uiUpdates = new FrameCoalescer();
+    private RefreshScheduler autoRefresh;
+    private final ConcurrentLinkedQueue<QueueEvent> pendingEvents = new ConcurrentLinkedQueue<>();
+    private volatile boolean pushLive;
+    
     public AdminScreen(Stage stage, ApiClient apiClient) {
         this.stage = stage;
         this.apiClient = apiClient;
+        this.queueStore = apiClient.newAllQueuesStore();
     }
     
     public void show() {
@@ -49,9 +82,51 @@ public class AdminScreen {
         stage.setScene(scene);
         stage.show();
         
-        loadAllQueues();
+        // All three panels load in parallel and render independently as data arrives
+        restoreSnapshot();
         loadStatistics();
         loadServices();
+        loadAllQueues();
+        
+        autoRefresh = new RefreshScheduler(stage, scene, this::refreshAll,
+            () -> pushLive ? PUSH_RESYNC_INTERVAL_MS : REFRESH_INTERVAL_MS);
+        autoRefresh.start();
+        autoRefresh.closeOnStop(apiClient.subscribeAllQueues(new QueueSubscription.Listener() {
+            @Override
+            public void onEvent(QueueEvent event) {
+                pendingEvents.add(event);
+                uiUpdates.post("queueEvents", AdminScreen.this::applyQueueEvents);
+            }
+            
+            @Override
+            public void onLiveChanged(boolean live) {
+                pushLive = live;
+            }
+        }));
+    }
+    
+    // Paint the last known state at once; the loads started right after revalidate it
+    private void restoreSnapshot() {
+        SnapshotCache.Snapshot snapshot = snapshots.load(SNAPSHOT_SCOPE, apiClient.getAccount());
+        if (snapshot == null) {
+            return;
+        }
+        shownServices = snapshot.services();
+        shownQueue = snapshot.queue();
+        queueStore.seed(snapshot.queue());
+        showServices(snapshot.services(), null);
+        showAllQueues(snapshot.queue(), null);
+    }
+    
+    private void saveSnapshot() {
+        String account = apiClient.getAccount();
+        List<Service> services = shownServices;
+        List<QueueItem> queue = shownQueue;
+        ApiTransport.asyncExecutor().execute(() -> snapshots.save(SNAPSHOT_SCOPE, account, services, queue));
+    }
+    
+    private CompletableFuture<?> refreshAll() {
+        return CompletableFuture.allOf(loadStatistics(), loadServices(), loadAllQueues());
     }
     
     private Tab createDashboardTab() {
@@ -71,8 +146,6 @@ public class AdminScreen {
         statsGrid.setHgap(20);
         statsGrid.setVgap(20);
         
-        loadStatistics();
-        
         dashContainer.getChildren().addAll(dashTitle, statsGrid);
         dashScroll.setContent(dashContainer);
         dashboardTab.setContent(dashScroll);
@@ -114,6 +187,7 @@ public class AdminScreen {
         servicesHeader.getChildren().addAll(servicesTitle, createServiceBtn, refreshBtn);
         
         servicesBox = new VBox(15);
+        serviceCards = new KeyedChildren<>(servicesBox, Service::serviceId, this::createServiceManagementCard);
         
         servicesContainer.getChildren().addAll(servicesHeader, servicesBox);
         servicesScroll.setContent(servicesContainer);
@@ -124,12 +198,10 @@ public class AdminScreen {
     
     private Tab createQueuesTab() {
         Tab queuesTab = new Tab("📋 All Bookings");
-        ScrollPane queuesScroll = new ScrollPane();
-        queuesScroll.setFitToWidth(true);
-        queuesScroll.setStyle("-fx-background: #f5f7fa; -fx-background-color: transparent;");
         
         VBox queuesContainer = new VBox(20);
         queuesContainer.setPadding(new Insets(30));
+        queuesContainer.setStyle("-fx-background-color: #f5f7fa;");
         
         HBox queuesHeader = new HBox(20);
         queuesHeader.setAlignment(Pos.CENTER_LEFT);
@@ -149,15 +221,120 @@ public class AdminScreen {
         
         queuesHeader.getChildren().addAll(queuesTitle, refreshBtn);
         
-        allQueuesBox = new VBox(15);
+        // TableView is virtualized: only visible rows get nodes, and cells are recycled while scrolling
+        allQueuesTable = createQueuesTable();
+        VBox.setVgrow(allQueuesTable, Priority.ALWAYS);
         
-        queuesContainer.getChildren().addAll(queuesHeader, allQueuesBox);
-        queuesScroll.setContent(queuesContainer);
-        queuesTab.setContent(queuesScroll);
+        queuesContainer.getChildren().addAll(queuesHeader, allQueuesTable);
+        queuesTab.setContent(queuesContainer);
         
         return queuesTab;
     }
     
+    private TableView<QueueItem> createQueuesTable() {
+        TableView<QueueItem> table = new TableView<>();
+        table.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY_FLEX_LAST_COLUMN);
+        table.setFixedCellSize(44);
+        table.setStyle("-fx-background-color: white; -fx-background-radius: 10;");
+        
+        // Sorting happens in a SortedList view so refreshes keep the user's sort order
+        SortedList<QueueItem> sortedItems = new SortedList<>(queueItems);
+        sortedItems.comparatorProperty().bind(table.comparatorProperty());
+        table.setItems(sortedItems);
+        
+        TableColumn<QueueItem, Integer> positionCol = new TableColumn<>("📍 Position");
+        positionCol.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(cell.getValue().position()));
+        positionCol.setPrefWidth(90);
+        
+        TableColumn<QueueItem, QueueStatus> statusCol = new TableColumn<>("Status");
+        statusCol.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(cell.getValue().status()));
+        statusCol.setCellFactory(column -> new TableCell<>() {
+            private final Label badge = new Label();
+            {
+                badge.setPadding(new Insets(3, 10, 3, 10));
+            }
+            
+            @Override
+            protected void updateItem(QueueStatus status, boolean empty) {
+                super.updateItem(status, empty);
+                if (empty || status == null) {
+                    setGraphic(null);
+                    return;
+                }
+                QueueItem item = getTableRow() == null ? null : getTableRow().getItem();
+                badge.setText(item != null ? item.statusLabel() : status.code().toUpperCase());
+                badge.setStyle("-fx-background-radius: 12; -fx-font-size: 11; " +
+                              "-fx-font-weight: bold; " + getStatusStyle(status));
+                setGraphic(badge);
+            }
+        });
+        statusCol.setPrefWidth(120);
+        
+        TableColumn<QueueItem, String> serviceCol = new TableColumn<>("Service");
+        serviceCol.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(cell.getValue().serviceType()));
+        serviceCol.setPrefWidth(160);
+        
+        TableColumn<QueueItem, String> nameCol = new TableColumn<>("👤 Name");
+        nameCol.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(cell.getValue().name()));
+        nameCol.setPrefWidth(140);
+        
+        TableColumn<QueueItem, String> purposeCol = new TableColumn<>("📝 Purpose");
+        purposeCol.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(cell.getValue().purpose()));
+        purposeCol.setSortable(false);
+        purposeCol.setPrefWidth(180);
+        
+        TableColumn<QueueItem, Integer> userCol = new TableColumn<>("👥 User ID");
+        userCol.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(cell.getValue().userId()));
+        userCol.setPrefWidth(80);
+        
+        TableColumn<QueueItem, Long> createdCol = new TableColumn<>("Created");
+        createdCol.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(cell.getValue().createdAt()));
+        createdCol.setCellFactory(column -> new TableCell<>() {
+            @Override
+            protected void updateItem(Long createdAt, boolean empty) {
+                super.updateItem(createdAt, empty);
+                if (empty || createdAt == null) {
+                    setText(null);
+                } else {
+                    setText(createdAt == 0L ? "N/A" : CREATED_FORMAT.format(Instant.ofEpochMilli(createdAt)));
+                }
+            }
+        });
+        createdCol.setPrefWidth(140);
+        
+        TableColumn<QueueItem, QueueItem> actionsCol = new TableColumn<>("Actions");
+        actionsCol.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(cell.getValue()));
+        actionsCol.setCellFactory(column -> new TableCell<>() {
+            private final Button updateBtn = new Button("Update Status");
+            private final Button deleteBtn = new Button("Delete");
+            private final HBox actions = new HBox(8, updateBtn, deleteBtn);
+            {
+                updateBtn.setStyle("-fx-background-color: #FF9800; -fx-text-fill: white; " +
+                                  "-fx-background-radius: 8; -fx-padding: 4 12; " +
+                                  "-fx-cursor: hand; -fx-font-weight: bold;");
+                deleteBtn.setStyle("-fx-background-color: #f44336; -fx-text-fill: white; " +
+                                  "-fx-background-radius: 8; -fx-padding: 4 12; " +
+                                  "-fx-cursor: hand; -fx-font-weight: bold;");
+                actions.setAlignment(Pos.CENTER_LEFT);
+                updateBtn.setOnAction(e -> showUpdateDialog(getItem().queueId()));
+                deleteBtn.setOnAction(e -> deleteQueue(getItem().queueId()));
+            }
+            
+            @Override
+            protected void updateItem(QueueItem item, boolean empty) {
+                super.updateItem(item, empty);
+                setGraphic(empty || item == null ? null : actions);
+            }
+        });
+        actionsCol.setSortable(false);
+        actionsCol.setPrefWidth(200);
+        
+        table.getColumns().addAll(List.of(positionCol, statusCol, serviceCol, nameCol,
+                                          purposeCol, userCol, createdCol, actionsCol));
+        table.getSortOrder().add(positionCol);
+        return table;
+    }
+    
     private HBox createNavBar() {
         HBox navbar = new HBox();
         navbar.setPadding(new Insets(15, 30, 15, 30));
@@ -182,6 +359,7 @@ public class AdminScreen {
                           "-fx-background-radius: 8; -fx-padding: 8 20; " +
                           "-fx-cursor: hand; -fx-font-weight: bold;");
         logoutBtn.setOnAction(e -> {
+            apiClient.logout();
             LoginScreen loginScreen = new LoginScreen(stage);
             loginScreen.show();
         });
@@ -257,58 +435,79 @@ public class AdminScreen {
                     return;
                 }
                 
-                try {
-                    apiClient.createService(name, description, category, maxCapacity, estimatedTime);
-                    
-                    Alert alert = new Alert(Alert.AlertType.INFORMATION);
-                    alert.setTitle("Success");
-                    alert.setHeaderText("Service Created");
-                    alert.setContentText("Service has been created successfully!");
-                    alert.showAndWait();
-                    
-                    loadServices();
-                    loadStatistics();
-                    
-                } catch (Exception ex) {
-                    Alert alert = new Alert(Alert.AlertType.ERROR);
-                    alert.setTitle("Error");
-                    alert.setContentText("Error: " + ex.getMessage());
-                    alert.showAndWait();
-                }
+                apiClient.createServiceAsync(name, description, category, maxCapacity, estimatedTime).whenComplete((result, error) -> {
+                    javafx.application.Platform.runLater(() -> {
+                        if (error != null) {
+                            Alert alert = new Alert(Alert.AlertType.ERROR);
+                            alert.setTitle("Error");
+                            alert.setContentText("Error: " + ApiClient.unwrap(error).getMessage());
+                            alert.showAndWait();
+                            return;
+                        }
+                        
+                        Alert alert = new Alert(Alert.AlertType.INFORMATION);
+                        alert.setTitle("Success");
+                        alert.setHeaderText("Service Created");
+                        alert.setContentText("Service has been created successfully!");
+                        alert.showAndWait();
+                        
+                        loadServices();
+                        loadStatistics();
+                    });
+                });
             }
         });
     }
     
-    private void loadServices() {
-        servicesBox.getChildren().clear();
+    private CompletableFuture<List<Service>> loadServices() {
+        if (pendingServices != null) {
+            pendingServices.cancel(true);
+        }
+        if (servicesBox.getChildren().isEmpty()) {
+            servicesBox.getChildren().add(createLoadingPlaceholder("Loading services..."));
+        }
         
-        try {
-            String response = apiClient.getServices();
-            JSONArray servicesArray = new JSONArray(response);
-            
-            if (servicesArray.length() == 0) {
-                Label emptyLabel = new Label("No services created yet. Click 'Create Service' to add one.");
-                emptyLabel.setFont(Font.font(14));
-                emptyLabel.setTextFill(Color.web("#999"));
-                emptyLabel.setPadding(new Insets(40));
-                servicesBox.getChildren().add(emptyLabel);
-                return;
-            }
-            
-            for (int i = 0; i < servicesArray.length(); i++) {
-                JSONObject service = servicesArray.getJSONObject(i);
-                VBox serviceCard = createServiceManagementCard(service);
-                servicesBox.getChildren().add(serviceCard);
-            }
-            
-        } catch (Exception ex) {
-            Label errorLabel = new Label("Error loading services: " + ex.getMessage());
+        ClientEvents.ScreenRefresh refresh = ClientEvents.ScreenRefresh.start();
+        CompletableFuture<List<Service>> request = apiClient.getServicesAsync();
+        pendingServices = request;
+        request.whenComplete((services, error) -> {
+            int count = services == null ? 0 : services.size();
+            refresh.finish("AdminScreen", "services", count, error);
+            uiUpdates.post("services", () -> {
+                if (!request.isCancelled()) {
+                    ClientEvents.render("AdminScreen", "services", count, () -> showServices(services, error));
+                }
+            });
+        });
+        return request;
+    }
+    
+    private void showServices(List<Service> services, Throwable error) {
+        if (error != null) {
+            Label errorLabel = new Label("Error loading services: " + ApiClient.unwrap(error).getMessage());
             errorLabel.setTextFill(Color.web("#f44336"));
-            servicesBox.getChildren().add(errorLabel);
+            serviceCards.showMessage(errorLabel);
+            return;
+        }
+        
+        if (!services.equals(shownServices)) {
+            shownServices = services;
+            saveSnapshot();
         }
+        
+        if (services.isEmpty()) {
+            Label emptyLabel = new Label("No services created yet. Click 'Create Service' to add one.");
+            emptyLabel.setFont(Font.font(14));
+            emptyLabel.setTextFill(Color.web("#999"));
+            emptyLabel.setPadding(new Insets(40));
+            serviceCards.showMessage(emptyLabel);
+            return;
+        }
+        
+        serviceCards.reconcile(services);
     }
     
-    private VBox createServiceManagementCard(JSONObject service) {
+    private VBox createServiceManagementCard(Service service) {
         VBox card = new VBox(15);
         card.setPadding(new Insets(20));
         card.setStyle("-fx-background-color: white; -fx-background-radius: 12; " +
@@ -318,14 +517,14 @@ public class AdminScreen {
         HBox header = new HBox(15);
         header.setAlignment(Pos.CENTER_LEFT);
         
-        Label nameLabel = new Label(service.optString("name", "Unknown"));
+        Label nameLabel = new Label(service.name());
         nameLabel.setFont(Font.font("System", FontWeight.BOLD, 18));
         nameLabel.setTextFill(Color.web("#2c3e50"));
         
         Region spacer = new Region();
         HBox.setHgrow(spacer, Priority.ALWAYS);
         
-        String status = service.optString("status", "active");
+        String status = service.statusCode();
         Label statusLabel = new Label(status.toUpperCase());
         statusLabel.setPadding(new Insets(5, 12, 5, 12));
         statusLabel.setStyle("-fx-background-radius: 12; -fx-font-size: 11; " +
@@ -337,8 +536,8 @@ public class AdminScreen {
         header.getChildren().addAll(nameLabel, spacer, statusLabel);
         
         // Description
-        if (!service.optString("description", "").isEmpty()) {
-            Label descLabel = new Label(service.optString("description"));
+        if (!service.description().isEmpty()) {
+            Label descLabel = new Label(service.description());
             descLabel.setFont(Font.font(13));
             descLabel.setTextFill(Color.web("#666"));
             descLabel.setWrapText(true);
@@ -350,16 +549,16 @@ public class AdminScreen {
         details.setHgap(25);
         details.setVgap(10);
         
-        details.add(createDetailLabel("📁 Category:", service.optString("category", "General")), 0, 0);
-        details.add(createDetailLabel("👥 Max Capacity:", String.valueOf(service.optInt("max_capacity", 50))), 1, 0);
-        details.add(createDetailLabel("⏱️ Time/Person:", service.optInt("estimated_time_per_person", 15) + " min"), 0, 1);
-        details.add(createDetailLabel("🆔 ID:", service.optString("service_id", "N/A").substring(0, 13) + "..."), 1, 1);
+        details.add(createDetailLabel("📁 Category:", service.category()), 0, 0);
+        details.add(createDetailLabel("👥 Max Capacity:", String.valueOf(service.maxCapacity())), 1, 0);
+        details.add(createDetailLabel("⏱️ Time/Person:", service.estimatedTimePerPerson() + " min"), 0, 1);
+        details.add(createDetailLabel("🆔 ID:", service.serviceId().substring(0, 13) + "..."), 1, 1);
         
         // Actions
         HBox actions = new HBox(10);
         actions.setAlignment(Pos.CENTER_RIGHT);
         
-        String serviceId = service.optString("service_id", "");
+        String serviceId = service.serviceId();
         
         Button toggleStatusBtn = new Button(status.equals("active") ? "🔴 Deactivate" : "🟢 Activate");
         toggleStatusBtn.setStyle("-fx-background-color: " + (status.equals("active") ? "#ff9800" : "#4caf50") + 
@@ -390,44 +589,46 @@ public class AdminScreen {
     private void toggleServiceStatus(String serviceId, String currentStatus) {
         String newStatus = currentStatus.equals("active") ? "inactive" : "active";
         
-        try {
-            apiClient.updateService(serviceId, null, null, null, newStatus);
-            
-            Alert alert = new Alert(Alert.AlertType.INFORMATION);
-            alert.setTitle("Success");
-            alert.setHeaderText("Service Status Updated");
-            alert.setContentText("Service has been " + newStatus + "!");
-            alert.showAndWait();
-            
-            loadServices();
-            
-        } catch (Exception ex) {
-            Alert alert = new Alert(Alert.AlertType.ERROR);
-            alert.setTitle("Error");
-            alert.setContentText("Error: " + ex.getMessage());
-            alert.showAndWait();
-        }
+        apiClient.updateServiceAsync(serviceId, null, null, null, newStatus).whenComplete((result, error) -> {
+            javafx.application.Platform.runLater(() -> {
+                if (error != null) {
+                    Alert alert = new Alert(Alert.AlertType.ERROR);
+                    alert.setTitle("Error");
+                    alert.setContentText("Error: " + ApiClient.unwrap(error).getMessage());
+                    alert.showAndWait();
+                    return;
+                }
+                
+                Alert alert = new Alert(Alert.AlertType.INFORMATION);
+                alert.setTitle("Success");
+                alert.setHeaderText("Service Status Updated");
+                alert.setContentText("Service has been " + newStatus + "!");
+                alert.showAndWait();
+                
+                loadServices();
+            });
+        });
     }
     
-    private void showEditServiceDialog(JSONObject service) {
+    private void showEditServiceDialog(Service service) {
         Dialog<ButtonType> dialog = new Dialog<>();
         dialog.setTitle("Edit Service");
-        dialog.setHeaderText("Edit Service: " + service.optString("name"));
+        dialog.setHeaderText("Edit Service: " + service.name());
         
         VBox content = new VBox(15);
         content.setPadding(new Insets(20));
         
-        TextField nameField = new TextField(service.optString("name", ""));
+        TextField nameField = new TextField(service.name());
         nameField.setPrefWidth(400);
         
-        TextArea descField = new TextArea(service.optString("description", ""));
+        TextArea descField = new TextArea(service.description());
         descField.setPrefRowCount(3);
         descField.setPrefWidth(400);
         
         ComboBox<String> categoryBox = new ComboBox<>();
         categoryBox.getItems().addAll("Hospital", "Clinic", "Government Office", 
                                      "Bank", "Restaurant", "Salon", "Other");
-        categoryBox.setValue(service.optString("category", "Hospital"));
+        categoryBox.setValue(service.category());
         categoryBox.setPrefWidth(400);
         
         content.getChildren().addAll(
@@ -444,29 +645,31 @@ public class AdminScreen {
         
         dialog.showAndWait().ifPresent(response -> {
             if (response == ButtonType.OK) {
-                try {
-                    apiClient.updateService(
-                        service.optString("service_id"),
-                        nameField.getText(),
-                        descField.getText(),
-                        categoryBox.getValue(),
-                        null
-                    );
-                    
-                    Alert alert = new Alert(Alert.AlertType.INFORMATION);
-                    alert.setTitle("Success");
-                    alert.setHeaderText("Service Updated");
-                    alert.setContentText("Service has been updated successfully!");
-                    alert.showAndWait();
-                    
-                    loadServices();
-                    
-                } catch (Exception ex) {
-                    Alert alert = new Alert(Alert.AlertType.ERROR);
-                    alert.setTitle("Error");
-                    alert.setContentText("Error: " + ex.getMessage());
-                    alert.showAndWait();
-                }
+                apiClient.updateServiceAsync(
+                    service.serviceId(),
+                    nameField.getText(),
+                    descField.getText(),
+                    categoryBox.getValue(),
+                    null
+                ).whenComplete((result, error) -> {
+                    javafx.application.Platform.runLater(() -> {
+                        if (error != null) {
+                            Alert alert = new Alert(Alert.AlertType.ERROR);
+                            alert.setTitle("Error");
+                            alert.setContentText("Error: " + ApiClient.unwrap(error).getMessage());
+                            alert.showAndWait();
+                            return;
+                        }
+                        
+                        Alert alert = new Alert(Alert.AlertType.INFORMATION);
+                        alert.setTitle("Success");
+                        alert.setHeaderText("Service Updated");
+                        alert.setContentText("Service has been updated successfully!");
+                        alert.showAndWait();
+                        
+                        loadServices();
+                    });
+                });
             }
         });
     }
@@ -479,24 +682,26 @@ public class AdminScreen {
         
         confirm.showAndWait().ifPresent(response -> {
             if (response == ButtonType.OK) {
-                try {
-                    apiClient.deleteService(serviceId);
-                    
-                    Alert alert = new Alert(Alert.AlertType.INFORMATION);
-                    alert.setTitle("Success");
-                    alert.setHeaderText("Service Deleted");
-                    alert.setContentText("Service has been deleted successfully!");
-                    alert.showAndWait();
-                    
-                    loadServices();
-                    loadStatistics();
-                    
-                } catch (Exception ex) {
-                    Alert alert = new Alert(Alert.AlertType.ERROR);
-                    alert.setTitle("Error");
-                    alert.setContentText("Error: " + ex.getMessage());
-                    alert.showAndWait();
-                }
+                apiClient.deleteServiceAsync(serviceId).whenComplete((result, error) -> {
+                    javafx.application.Platform.runLater(() -> {
+                        if (error != null) {
+                            Alert alert = new Alert(Alert.AlertType.ERROR);
+                            alert.setTitle("Error");
+                            alert.setContentText("Error: " + ApiClient.unwrap(error).getMessage());
+                            alert.showAndWait();
+                            return;
+                        }
+                        
+                        Alert alert = new Alert(Alert.AlertType.INFORMATION);
+                        alert.setTitle("Success");
+                        alert.setHeaderText("Service Deleted");
+                        alert.setContentText("Service has been deleted successfully!");
+                        alert.showAndWait();
+                        
+                        loadServices();
+                        loadStatistics();
+                    });
+                });
             }
         });
     }
@@ -505,42 +710,60 @@ public class AdminScreen {
     // STATISTICS
     // ==========================================
     
-    private void loadStatistics() {
+    private CompletableFuture<QueueStats> loadStatistics() {
+        if (pendingStats != null) {
+            pendingStats.cancel(true);
+        }
+        if (statsGrid.getChildren().isEmpty()) {
+            statsGrid.add(createLoadingPlaceholder("Loading statistics..."), 0, 0);
+        }
+        
+        ClientEvents.ScreenRefresh refresh = ClientEvents.ScreenRefresh.start();
+        CompletableFuture<QueueStats> request = apiClient.getQueueStatsAsync();
+        pendingStats = request;
+        request.whenComplete((stats, error) -> {
+            refresh.finish("AdminScreen", "statistics", stats == null ? 0 : 1, error);
+            uiUpdates.post("statistics", () -> {
+                if (!request.isCancelled()) {
+                    ClientEvents.render("AdminScreen", "statistics", 1, () -> showStatistics(stats, error));
+                }
+            });
+        });
+        return request;
+    }
+    
+    private void showStatistics(QueueStats stats, Throwable error) {
         statsGrid.getChildren().clear();
         
-        try {
-            String response = apiClient.getQueueStats();
-            JSONObject stats = new JSONObject(response);
-            
-            int total = stats.optInt("total_items", 0);
-            int waiting = stats.optInt("waiting", 0);
-            
-            // Total Bookings Card
-            VBox totalCard = createStatCard("📊", "Total Bookings", 
-                String.valueOf(total), "#3498db");
-            statsGrid.add(totalCard, 0, 0);
-            
-            // Waiting Card
-            VBox waitingCard = createStatCard("⏳", "Waiting", 
-                String.valueOf(waiting), "#f39c12");
-            statsGrid.add(waitingCard, 1, 0);
-            
-            // Completed Card
-            VBox completedCard = createStatCard("✅", "Completed", 
-                String.valueOf(total - waiting), "#2ecc71");
-            statsGrid.add(completedCard, 2, 0);
-            
-            // Services breakdown
-            JSONObject byService = stats.optJSONObject("by_service_type");
-            if (byService != null) {
-                VBox servicesCard = createServicesBreakdown(byService);
-                statsGrid.add(servicesCard, 0, 1, 3, 1);
-            }
-            
-        } catch (Exception ex) {
-            Label errorLabel = new Label("Error loading statistics: " + ex.getMessage());
+        if (error != null) {
+            Label errorLabel = new Label("Error loading statistics: " + ApiClient.unwrap(error).getMessage());
             errorLabel.setTextFill(Color.web("#f44336"));
             statsGrid.add(errorLabel, 0, 0);
+            return;
+        }
+        
+        int total = stats.totalItems();
+        int waiting = stats.waiting();
+        
+        // Total Bookings Card
+        VBox totalCard = createStatCard("📊", "Total Bookings", 
+            String.valueOf(total), "#3498db");
+        statsGrid.add(totalCard, 0, 0);
+        
+        // Waiting Card
+        VBox waitingCard = createStatCard("⏳", "Waiting", 
+            String.valueOf(waiting), "#f39c12");
+        statsGrid.add(waitingCard, 1, 0);
+        
+        // Completed Card
+        VBox completedCard = createStatCard("✅", "Completed", 
+            String.valueOf(stats.notWaiting()), "#2ecc71");
+        statsGrid.add(completedCard, 2, 0);
+        
+        // Services breakdown
+        if (!stats.byServiceType().isEmpty()) {
+            VBox servicesCard = createServicesBreakdown(stats.byServiceType());
+            statsGrid.add(servicesCard, 0, 1, 3, 1);
         }
     }
     
@@ -572,7 +795,7 @@ public class AdminScreen {
         return card;
     }
     
-    private VBox createServicesBreakdown(JSONObject byService) {
+    private VBox createServicesBreakdown(List<QueueStats.ServiceTypeCount> byService) {
         VBox card = new VBox(15);
         card.setPadding(new Insets(25));
         card.setStyle("-fx-background-color: white; -fx-background-radius: 12; " +
@@ -592,9 +815,8 @@ public class AdminScreen {
         int col = 0;
         int colorIndex = 0;
         
-        for (String key : byService.keySet()) {
-            int count = byService.getInt(key);
-            HBox item = createServiceItem(key, count, colors[colorIndex % colors.length]);
+        for (QueueStats.ServiceTypeCount entry : byService) {
+            HBox item = createServiceItem(entry.serviceType(), entry.count(), colors[colorIndex % colors.length]);
             grid.add(item, col, row);
             
             col++;
@@ -639,92 +861,85 @@ public class AdminScreen {
     // QUEUE MANAGEMENT
     // ==========================================
     
-    private void loadAllQueues() {
-        allQueuesBox.getChildren().clear();
-        
-        try {
-            String response = apiClient.getAllQueues();
-            JSONArray queueArray = new JSONArray(response);
-            
-            if (queueArray.length() == 0) {
-                Label emptyLabel = new Label("No queue bookings found");
-                emptyLabel.setFont(Font.font(14));
-                emptyLabel.setTextFill(Color.web("#999"));
-                emptyLabel.setPadding(new Insets(40));
-                allQueuesBox.getChildren().add(emptyLabel);
-                return;
-            }
-            
-            for (int i = 0; i < queueArray.length(); i++) {
-                JSONObject item = queueArray.getJSONObject(i);
-                VBox queueCard = createAdminQueueCard(item);
-                allQueuesBox.getChildren().add(queueCard);
-            }
-            
-        } catch (Exception ex) {
-            Label errorLabel = new Label("Error loading queues: " + ex.getMessage());
-            errorLabel.setTextFill(Color.web("#f44336"));
-            allQueuesBox.getChildren().add(errorLabel);
+    private CompletableFuture<QueueStore.Change> loadAllQueues() {
+        if (pendingQueues != null) {
+            pendingQueues.cancel(true);
+        }
+        if (queueItems.isEmpty()) {
+            allQueuesTable.setPlaceholder(createLoadingPlaceholder("Loading bookings..."));
         }
+        
+        // Only bookings changed since the last sync come over the wire
+        ClientEvents.ScreenRefresh refresh = ClientEvents.ScreenRefresh.start();
+        CompletableFuture<QueueStore.Change> request = queueStore.sync();
+        pendingQueues = request;
+        request.whenComplete((change, error) -> {
+            refresh.finish("AdminScreen", "queues", queueStore.size(), error);
+            uiUpdates.post("queues", () -> {
+                if (!request.isCancelled()) {
+                    List<QueueItem> items = error == null ? queueStore.items() : null;
+                    ClientEvents.render("AdminScreen", "queues", items == null ? 0 : items.size(),
+                        () -> showAllQueues(items, error));
+                }
+            });
+        });
+        return request;
     }
     
-    private VBox createAdminQueueCard(JSONObject item) {
-        VBox card = new VBox(15);
-        card.setPadding(new Insets(20));
-        card.setStyle("-fx-background-color: white; -fx-background-radius: 10; " +
-                     "-fx-effect: dropshadow(gaussian, rgba(0,0,0,0.08), 8, 0, 0, 2);");
-        
-        HBox header = new HBox(15);
-        header.setAlignment(Pos.CENTER_LEFT);
-        
-        Label serviceLabel = new Label(item.optString("serviceType", "General"));
-        serviceLabel.setFont(Font.font("System", FontWeight.BOLD, 18));
-        serviceLabel.setTextFill(Color.web("#2c3e50"));
-        
-        Region spacer = new Region();
-        HBox.setHgrow(spacer, Priority.ALWAYS);
-        
-        String status = item.optString("status", "waiting");
-        Label statusLabel = new Label(status.toUpperCase());
-        statusLabel.setPadding(new Insets(5, 12, 5, 12));
-        statusLabel.setStyle("-fx-background-radius: 12; -fx-font-size: 11; " +
-                            "-fx-font-weight: bold; " + getStatusStyle(status));
-        
-        header.getChildren().addAll(serviceLabel, spacer, statusLabel);
-        
-        GridPane details = new GridPane();
-        details.setHgap(25);
-        details.setVgap(10);
-        
-        details.add(createDetailLabel("👤 Name:", item.optString("name", "N/A")), 0, 0);
-        details.add(createDetailLabel("👥 User ID:", "#" + item.optInt("user_id", 0)), 1, 0);
-        details.add(createDetailLabel("📝 Purpose:", item.optString("purpose", "N/A")), 0, 1, 2, 1);
-        details.add(createDetailLabel("📍 Position:", "#" + item.optInt("position", 0)), 0, 2);
-        details.add(createDetailLabel("🆔 Queue ID:", 
-            item.optString("queue_id", "N/A").substring(0, 13) + "..."), 1, 2);
-        
-        HBox actions = new HBox(10);
-        actions.setAlignment(Pos.CENTER_RIGHT);
-        
-        String queueId = item.optString("queue_id", "");
+    private void showAllQueues(List<QueueItem> items, Throwable error) {
+        if (error != null) {
+            queueItems.clear();
+            Label errorLabel = new Label("Error loading queues: " + ApiClient.unwrap(error).getMessage());
+            errorLabel.setTextFill(Color.web("#f44336"));
+            allQueuesTable.setPlaceholder(errorLabel);
+            return;
+        }
         
-        Button updateBtn = new Button("Update Status");
-        updateBtn.setStyle("-fx-background-color: #FF9800; -fx-text-fill: white; " +
-                          "-fx-background-radius: 8; -fx-padding: 8 16; " +
-                          "-fx-cursor: hand; -fx-font-weight: bold;");
-        updateBtn.setOnAction(e -> showUpdateDialog(queueId));
+        Label emptyLabel = new Label("No queue bookings found");
+        emptyLabel.setFont(Font.font(14));
+        emptyLabel.setTextFill(Color.web("#999"));
+        allQueuesTable.setPlaceholder(emptyLabel);
         
-        Button deleteBtn = new Button("Delete");
-        deleteBtn.setStyle("-fx-background-color: #f44336; -fx-text-fill: white; " +
-                          "-fx-background-radius: 8; -fx-padding: 8 16; " +
-                          "-fx-cursor: hand; -fx-font-weight: bold;");
-        deleteBtn.setOnAction(e -> deleteQueue(queueId));
+        KeyedChildren.reconcileItems(queueItems, items, QueueItem::queueId);
+        if (!items.equals(shownQueue)) {
+            shownQueue = items;
+            saveSnapshot();
+        }
+    }
+    
+    private void applyQueueEvents() {
+        List<QueueEvent> events = new ArrayList<>();
+        for (QueueEvent event; (event = pendingEvents.poll()) != null; ) {
+            events.add(event);
+        }
+        if (events.stream().anyMatch(event -> event.type() == QueueEvent.Type.RESYNC)) {
+            loadAllQueues();
+            loadStatistics();
+            return;
+        }
+        if (!events.isEmpty()) {
+            queueStore.apply(events);
+            ClientEvents.render("AdminScreen", "queueEvents", events.size(),
+                () -> showAllQueues(queueStore.items(), null));
+            // Counts moved with the bookings; the stats call is cheap and coalesced
+            loadStatistics();
+        }
+    }
+    
+    private HBox createLoadingPlaceholder(String message) {
+        HBox placeholder = new HBox(12);
+        placeholder.setAlignment(Pos.CENTER_LEFT);
+        placeholder.setPadding(new Insets(40));
         
-        actions.getChildren().addAll(updateBtn, deleteBtn);
+        ProgressIndicator spinner = new ProgressIndicator();
+        spinner.setPrefSize(24, 24);
         
-        card.getChildren().addAll(header, new Separator(), details, actions);
+        Label label = new Label(message);
+        label.setFont(Font.font(14));
+        label.setTextFill(Color.web("#999"));
         
-        return card;
+        placeholder.getChildren().addAll(spinner, label);
+        return placeholder;
     }
     
     private HBox createDetailLabel(String label, String value) {
@@ -743,15 +958,15 @@ public class AdminScreen {
         return box;
     }
     
-    private String getStatusStyle(String status) {
-        switch (status.toLowerCase()) {
-            case "waiting":
+    private String getStatusStyle(QueueStatus status) {
+        switch (status) {
+            case WAITING:
                 return "-fx-background-color: #fff3cd; -fx-text-fill: #856404;";
-            case "in-progress":
+            case IN_PROGRESS:
                 return "-fx-background-color: #cfe2ff; -fx-text-fill: #084298;";
-            case "completed":
+            case COMPLETED:
                 return "-fx-background-color: #d1e7dd; -fx-text-fill: #0f5132;";
-            case "cancelled":
+            case CANCELLED:
                 return "-fx-background-color: #f8d7da; -fx-text-fill: #842029;";
             default:
                 return "-fx-background-color: #e2e3e5; -fx-text-fill: #41464b;";
@@ -780,24 +995,27 @@ public class AdminScreen {
         
         dialog.showAndWait().ifPresent(response -> {
             if (response == ButtonType.OK) {
-                try {
-                    String status = statusBox.getValue();
-                    apiClient.adminUpdateQueue(queueId, null, status);
-                    
-                    Alert alert = new Alert(Alert.AlertType.INFORMATION);
-                    alert.setTitle("Success");
-                    alert.setHeaderText("Status Updated");
-                    alert.setContentText("Queue status has been updated successfully!");
-                    alert.showAndWait();
-                    
-                    loadAllQueues();
-                    loadStatistics();
-                } catch (Exception ex) {
-                    Alert alert = new Alert(Alert.AlertType.ERROR);
-                    alert.setTitle("Error");
-                    alert.setContentText("Error: " + ex.getMessage());
-                    alert.showAndWait();
-                }
+                String status = statusBox.getValue();
+                apiClient.adminUpdateQueueAsync(queueId, null, status).whenComplete((result, error) -> {
+                    javafx.application.Platform.runLater(() -> {
+                        if (error != null) {
+                            Alert alert = new Alert(Alert.AlertType.ERROR);
+                            alert.setTitle("Error");
+                            alert.setContentText("Error: " + ApiClient.unwrap(error).getMessage());
+                            alert.showAndWait();
+                            return;
+                        }
+                        
+                        Alert alert = new Alert(Alert.AlertType.INFORMATION);
+                        alert.setTitle("Success");
+                        alert.setHeaderText("Status Updated");
+                        alert.setContentText("Queue status has been updated successfully!");
+                        alert.showAndWait();
+                        
+                        loadAllQueues();
+                        loadStatistics();
+                    });
+                });
             }
         });
     }
@@ -810,24 +1028,26 @@ public class AdminScreen {
         
         confirm.showAndWait().ifPresent(response -> {
             if (response == ButtonType.OK) {
-                try {
-                    apiClient.adminDeleteQueue(queueId);
-                    
-                    Alert alert = new Alert(Alert.AlertType.INFORMATION);
-                    alert.setTitle("Success");
-                    alert.setHeaderText("Booking Deleted");
-                    alert.setContentText("Queue booking has been deleted successfully!");
-                    alert.showAndWait();
-                    
-                    loadAllQueues();
-                    loadStatistics();
-                    
-                } catch (Exception ex) {
-                    Alert alert = new Alert(Alert.AlertType.ERROR);
-                    alert.setTitle("Error");
-                    alert.setContentText("Error: " + ex.getMessage());
-                    alert.showAndWait();
-                }
+                apiClient.adminDeleteQueueAsync(queueId).whenComplete((result, error) -> {
+                    javafx.application.Platform.runLater(() -> {
+                        if (error != null) {
+                            Alert alert = new Alert(Alert.AlertType.ERROR);
+                            alert.setTitle("Error");
+                            alert.setContentText("Error: " + ApiClient.unwrap(error).getMessage());
+                            alert.showAndWait();
+                            return;
+                        }
+                        
+                        Alert alert = new Alert(Alert.AlertType.INFORMATION);
+                        alert.setTitle("Success");
+                        alert.setHeaderText("Booking Deleted");
+                        alert.setContentText("Queue booking has been deleted successfully!");
+                        alert.showAndWait();
+                        
+                        loadAllQueues();
+                        loadStatistics();
+                    });
+                });
             }
         });
     }
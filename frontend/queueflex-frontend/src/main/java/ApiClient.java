@@ -1,301 +1,550 @@
 // ApiClient.java
-import java.io.*;
-import java.net.*;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import org.json.*;
 
 public class ApiClient {
-    private static final String AUTH_URL = "http://localhost:3000";
-    private static final String QUEUE_URL = "http://localhost:4000";
-    private static final String ADMIN_URL = "http://localhost:5000";
-    
-    private String token;
-    private boolean isAdmin;
-    
+    private static final ApiTransport.Service AUTH = ApiTransport.Service.AUTH;
+    private static final ApiTransport.Service QUEUE = ApiTransport.Service.QUEUE;
+    private static final ApiTransport.Service ADMIN = ApiTransport.Service.ADMIN;
+
+    private final ApiTransport transport;
+    private final ResponseCache catalogCache = ResponseCache.fromSystemProperties();
+    private final SingleFlight inFlight = new SingleFlight();
+
+    private final SessionManager session = new SessionManager("app", this::authenticate);
+
+    public ApiClient() {
+        this(ApiTransport.shared());
+    }
+
+    public ApiClient(ApiTransport transport) {
+        this.transport = transport;
+    }
+
+    // ==========================================
+    // AUTH ENDPOINTS
+    // ==========================================
+
     // Signup
     public String signup(String name, String email, String password, boolean isAdmin) throws Exception {
-        URL url = new URL(AUTH_URL + "/signup");
-        HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-        conn.setRequestMethod("POST");
-        conn.setRequestProperty("Content-Type", "application/json");
-        conn.setDoOutput(true);
-        
+        return await(signupAsync(name, email, password, isAdmin));
+    }
+
+    public CompletableFuture<String> signupAsync(String name, String email, String password, boolean isAdmin) {
         JSONObject json = new JSONObject();
         json.put("name", name);
         json.put("email", email);
         json.put("password", password);
         json.put("is_admin", isAdmin);
-        
-        try (OutputStream os = conn.getOutputStream()) {
-            os.write(json.toString().getBytes());
-            os.flush();
-        }
-        
-        return readResponse(conn);
+
+        return executeAsync("POST", AUTH, "/signup", null, json);
     }
-    
+
     // Login
     public boolean login(String email, String password) throws Exception {
-        URL url = new URL(AUTH_URL + "/login");
-        HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-        conn.setRequestMethod("POST");
-        conn.setRequestProperty("Content-Type", "application/json");
-        conn.setDoOutput(true);
-        
+        return await(loginAsync(email, password));
+    }
+
+    public CompletableFuture<Boolean> loginAsync(String email, String password) {
+        return session.loginAsync(email, password).thenApply(loggedIn -> loggedIn != null);
+    }
+
+    // Resume the last saved session if its token is still valid; true when logged in
+    public boolean restoreSession() {
+        return session.restore() != null;
+    }
+
+    public void logout() {
+        session.logout();
+        catalogCache.clear();
+    }
+
+    // Password login round-trip used by the session manager (also for background renewal)
+    private SessionManager.Session authenticate(String email, String password) throws Exception {
         JSONObject json = new JSONObject();
         json.put("email", email);
         json.put("password", password);
-        
-        try (OutputStream os = conn.getOutputStream()) {
-            os.write(json.toString().getBytes());
-            os.flush();
-        }
-        
-        String response = readResponse(conn);
-        JSONObject jsonResponse = new JSONObject(response);
-        
-        if (jsonResponse.has("token")) {
-            this.token = jsonResponse.getString("token");
-            this.isAdmin = jsonResponse.getBoolean("admin");
-            return true;
+
+        JSONObject jsonResponse = new JSONObject(await(executeAsync("POST", AUTH, "/login", null, json)));
+        if (!jsonResponse.has("token")) {
+            return null;
         }
-        return false;
+        String token = jsonResponse.getString("token");
+        return new SessionManager.Session(email, token, jsonResponse.getBoolean("admin"), SessionManager.expiresAt(token));
     }
-    
+
     // ==========================================
     // SERVICE ENDPOINTS
     // ==========================================
-    
+
     // Get all available services (public)
-    public String getServices() throws Exception {
-        URL url = new URL(QUEUE_URL + "/services");
-        HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-        conn.setRequestMethod("GET");
-        conn.setRequestProperty("Authorization", "Bearer " + token);
-        
-        return readResponse(conn);
-    }
-    
+    public List<Service> getServices() throws Exception {
+        return await(getServicesAsync());
+    }
+
+    public CompletableFuture<List<Service>> getServicesAsync() {
+        return coalesced(QUEUE, "/services",
+            () -> fetchCachedAsync(QUEUE, "/services", body -> decodeList(QUEUE, "/services", body, Service::fromJson)));
+    }
+
     // Get specific service
-    public String getServiceById(String serviceId) throws Exception {
-        URL url = new URL(QUEUE_URL + "/services/" + serviceId);
-        HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-        conn.setRequestMethod("GET");
-        conn.setRequestProperty("Authorization", "Bearer " + token);
-        
-        return readResponse(conn);
-    }
-    
+    public Service getServiceById(String serviceId) throws Exception {
+        return await(getServiceByIdAsync(serviceId));
+    }
+
+    public CompletableFuture<Service> getServiceByIdAsync(String serviceId) {
+        String path = "/services/" + serviceId;
+        return coalesced(QUEUE, path,
+            () -> fetchCachedAsync(QUEUE, path, body -> Service.fromJson(new JSONObject(body))));
+    }
+
     // Admin: Create service
     public String createService(String name, String description, String category, int maxCapacity, int estimatedTime) throws Exception {
-        URL url = new URL(ADMIN_URL + "/admin/services");
-        HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-        conn.setRequestMethod("POST");
-        conn.setRequestProperty("Content-Type", "application/json");
-        conn.setRequestProperty("Authorization", "Bearer " + token);
-        conn.setDoOutput(true);
-        
+        return await(createServiceAsync(name, description, category, maxCapacity, estimatedTime));
+    }
+
+    public CompletableFuture<String> createServiceAsync(String name, String description, String category, int maxCapacity, int estimatedTime) {
         JSONObject json = new JSONObject();
         json.put("name", name);
         json.put("description", description);
         json.put("category", category);
         json.put("max_capacity", maxCapacity);
         json.put("estimated_time_per_person", estimatedTime);
-        
-        try (OutputStream os = conn.getOutputStream()) {
-            os.write(json.toString().getBytes());
-            os.flush();
-        }
-        
-        return readResponse(conn);
+
+        return invalidatingCatalog(executeAsync("POST", ADMIN, "/admin/services", token(), json));
     }
-    
+
     // Admin: Update service
     public String updateService(String serviceId, String name, String description, String category, String status) throws Exception {
-        URL url = new URL(ADMIN_URL + "/admin/services/" + serviceId);
-        HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-        conn.setRequestMethod("PUT");
-        conn.setRequestProperty("Content-Type", "application/json");
-        conn.setRequestProperty("Authorization", "Bearer " + token);
-        conn.setDoOutput(true);
-        
+        return await(updateServiceAsync(serviceId, name, description, category, status));
+    }
+
+    public CompletableFuture<String> updateServiceAsync(String serviceId, String name, String description, String category, String status) {
         JSONObject json = new JSONObject();
         if (name != null) json.put("name", name);
         if (description != null) json.put("description", description);
         if (category != null) json.put("category", category);
         if (status != null) json.put("status", status);
-        
-        try (OutputStream os = conn.getOutputStream()) {
-            os.write(json.toString().getBytes());
-            os.flush();
-        }
-        
-        return readResponse(conn);
+
+        return invalidatingCatalog(executeAsync("PUT", ADMIN, "/admin/services/" + serviceId, token(), json));
     }
-    
+
     // Admin: Delete service
     public String deleteService(String serviceId) throws Exception {
-        URL url = new URL(ADMIN_URL + "/admin/services/" + serviceId);
-        HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-        conn.setRequestMethod("DELETE");
-        conn.setRequestProperty("Authorization", "Bearer " + token);
-        
-        return readResponse(conn);
-    }
-    
+        return await(deleteServiceAsync(serviceId));
+    }
+
+    public CompletableFuture<String> deleteServiceAsync(String serviceId) {
+        return invalidatingCatalog(executeAsync("DELETE", ADMIN, "/admin/services/" + serviceId, token(), null));
+    }
+
     // ==========================================
     // QUEUE ENDPOINTS
     // ==========================================
-    
+
     // Add to queue with service
     public String addToQueue(String name, String purpose, String serviceId) throws Exception {
-        URL url = new URL(QUEUE_URL + "/queue/add");
-        HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-        conn.setRequestMethod("POST");
-        conn.setRequestProperty("Content-Type", "application/json");
-        conn.setRequestProperty("Authorization", "Bearer " + token);
-        conn.setDoOutput(true);
-        
+        return await(addToQueueAsync(name, purpose, serviceId));
+    }
+
+    public CompletableFuture<String> addToQueueAsync(String name, String purpose, String serviceId) {
         JSONObject json = new JSONObject();
         json.put("name", name);
         json.put("purpose", purpose);
         json.put("service_id", serviceId);
-        
-        try (OutputStream os = conn.getOutputStream()) {
-            os.write(json.toString().getBytes());
-            os.flush();
-        }
-        
-        return readResponse(conn);
+
+        return invalidatingCatalog(executeAsync("POST", QUEUE, "/queue/add", token(), json));
     }
-    
+
     // Get queue items
-    public String getQueue() throws Exception {
-        URL url = new URL(QUEUE_URL + "/queue/get");
-        HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-        conn.setRequestMethod("GET");
-        conn.setRequestProperty("Authorization", "Bearer " + token);
-        
-        return readResponse(conn);
-    }
-    
+    public List<QueueItem> getQueue() throws Exception {
+        return await(getQueueAsync());
+    }
+
+    public CompletableFuture<List<QueueItem>> getQueueAsync() {
+        return coalesced(QUEUE, "/queue/get", () -> fetchListAsync(QUEUE, "/queue/get", QueueItem::fromJson));
+    }
+
+    // Stream the caller's queue items one at a time; returns the number visited
+    public int streamQueue(Consumer<QueueItem> visitor) throws Exception {
+        return streamObjects(QUEUE, "/queue/get", json -> visitor.accept(QueueItem.fromJson(json)));
+    }
+
+    public CompletableFuture<Integer> streamQueueAsync(Consumer<QueueItem> visitor) {
+        return streamObjectsAsync(QUEUE, "/queue/get", json -> visitor.accept(QueueItem.fromJson(json)));
+    }
+
     // Get queue for specific service
-    public String getQueueByService(String serviceId) throws Exception {
-        URL url = new URL(QUEUE_URL + "/queue/service/" + serviceId);
-        HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-        conn.setRequestMethod("GET");
-        conn.setRequestProperty("Authorization", "Bearer " + token);
-        
-        return readResponse(conn);
-    }
-    
+    public List<QueueItem> getQueueByService(String serviceId) throws Exception {
+        return await(getQueueByServiceAsync(serviceId));
+    }
+
+    public CompletableFuture<List<QueueItem>> getQueueByServiceAsync(String serviceId) {
+        String path = "/queue/service/" + serviceId;
+        return coalesced(QUEUE, path, () -> fetchListAsync(QUEUE, path, QueueItem::fromJson));
+    }
+
     // Update queue item
     public String updateQueue(String queueId, String name, String purpose) throws Exception {
-        URL url = new URL(QUEUE_URL + "/queue/update/" + queueId);
-        HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-        conn.setRequestMethod("PUT");
-        conn.setRequestProperty("Content-Type", "application/json");
-        conn.setRequestProperty("Authorization", "Bearer " + token);
-        conn.setDoOutput(true);
-        
+        return await(updateQueueAsync(queueId, name, purpose));
+    }
+
+    public CompletableFuture<String> updateQueueAsync(String queueId, String name, String purpose) {
         JSONObject json = new JSONObject();
         json.put("name", name);
         json.put("purpose", purpose);
-        
-        try (OutputStream os = conn.getOutputStream()) {
-            os.write(json.toString().getBytes());
-            os.flush();
-        }
-        
-        return readResponse(conn);
+
+        return invalidatingCatalog(executeAsync("PUT", QUEUE, "/queue/update/" + queueId, token(), json));
     }
-    
+
     // Delete queue item
     public String deleteQueue(String queueId) throws Exception {
-        URL url = new URL(QUEUE_URL + "/queue/delete/" + queueId);
-        HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-        conn.setRequestMethod("DELETE");
-        conn.setRequestProperty("Authorization", "Bearer " + token);
-        
-        return readResponse(conn);
-    }
-    
+        return await(deleteQueueAsync(queueId));
+    }
+
+    public CompletableFuture<String> deleteQueueAsync(String queueId) {
+        return invalidatingCatalog(executeAsync("DELETE", QUEUE, "/queue/delete/" + queueId, token(), null));
+    }
+
     // Admin: Get all queues
-    public String getAllQueues() throws Exception {
-        URL url = new URL(ADMIN_URL + "/admin/queue/all");
-        HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-        conn.setRequestMethod("GET");
-        conn.setRequestProperty("Authorization", "Bearer " + token);
-        
-        return readResponse(conn);
-    }
-    
+    public List<QueueItem> getAllQueues() throws Exception {
+        return await(getAllQueuesAsync());
+    }
+
+    public CompletableFuture<List<QueueItem>> getAllQueuesAsync() {
+        return coalesced(ADMIN, "/admin/queue/all", () -> fetchListAsync(ADMIN, "/admin/queue/all", QueueItem::fromJson));
+    }
+
+    // Admin: Stream all queues one item at a time; returns the number visited
+    public int streamAllQueues(Consumer<QueueItem> visitor) throws Exception {
+        return streamObjects(ADMIN, "/admin/queue/all", json -> visitor.accept(QueueItem.fromJson(json)));
+    }
+
+    public CompletableFuture<Integer> streamAllQueuesAsync(Consumer<QueueItem> visitor) {
+        return streamObjectsAsync(ADMIN, "/admin/queue/all", json -> visitor.accept(QueueItem.fromJson(json)));
+    }
+
     // Admin: Get queue stats
-    public String getQueueStats() throws Exception {
-        URL url = new URL(ADMIN_URL + "/admin/queue/stats");
-        HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-        conn.setRequestMethod("GET");
-        conn.setRequestProperty("Authorization", "Bearer " + token);
-        
-        return readResponse(conn);
-    }
-    
+    public QueueStats getQueueStats() throws Exception {
+        return await(getQueueStatsAsync());
+    }
+
+    public CompletableFuture<QueueStats> getQueueStatsAsync() {
+        return coalesced(ADMIN, "/admin/queue/stats", () -> executeAsync("GET", ADMIN, "/admin/queue/stats", token(), null)
+            .thenApply(response -> QueueStats.fromJson(new JSONObject(response))));
+    }
+
     // Admin: Update queue (admin can update status)
     public String adminUpdateQueue(String queueId, String name, String status) throws Exception {
-        URL url = new URL(ADMIN_URL + "/admin/queue/" + queueId);
-        HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-        conn.setRequestMethod("PUT");
-        conn.setRequestProperty("Content-Type", "application/json");
-        conn.setRequestProperty("Authorization", "Bearer " + token);
-        conn.setDoOutput(true);
-        
+        return await(adminUpdateQueueAsync(queueId, name, status));
+    }
+
+    public CompletableFuture<String> adminUpdateQueueAsync(String queueId, String name, String status) {
         JSONObject json = new JSONObject();
         if (name != null) json.put("name", name);
         if (status != null) json.put("status", status);
-        
-        try (OutputStream os = conn.getOutputStream()) {
-            os.write(json.toString().getBytes());
-            os.flush();
-        }
-        
-        return readResponse(conn);
+
+        return invalidatingCatalog(executeAsync("PUT", ADMIN, "/admin/queue/" + queueId, token(), json));
     }
-    
+
     // Admin: Delete queue
     public String adminDeleteQueue(String queueId) throws Exception {
-        URL url = new URL(ADMIN_URL + "/admin/queue/" + queueId);
-        HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-        conn.setRequestMethod("DELETE");
-        conn.setRequestProperty("Authorization", "Bearer " + token);
-        
-        return readResponse(conn);
-    }
-    
-    // Helper method to read response
-    private String readResponse(HttpURLConnection conn) throws Exception {
-        int responseCode = conn.getResponseCode();
-        InputStream is = (responseCode < 400) ? conn.getInputStream() : conn.getErrorStream();
-        
-        BufferedReader br = new BufferedReader(new InputStreamReader(is));
-        StringBuilder response = new StringBuilder();
-        String line;
-        
-        while ((line = br.readLine()) != null) {
-            response.append(line);
+        return await(adminDeleteQueueAsync(queueId));
+    }
+
+    public CompletableFuture<String> adminDeleteQueueAsync(String queueId) {
+        return invalidatingCatalog(executeAsync("DELETE", ADMIN, "/admin/queue/" + queueId, token(), null));
+    }
+
+    // Delta-synced replica of the caller's bookings
+    public QueueStore newMyQueueStore() {
+        return new QueueStore(since -> fetchDeltaAsync(QUEUE, "/queue/get", since));
+    }
+
+    public QueueStore newServiceQueueStore(String serviceId) {
+        String path = "/queue/service/" + serviceId;
+        return new QueueStore(since -> fetchDeltaAsync(QUEUE, path, since));
+    }
+
+    // Admin: delta-synced replica of every queue
+    public QueueStore newAllQueuesStore() {
+        return new QueueStore(since -> fetchDeltaAsync(ADMIN, "/admin/queue/all", since));
+    }
+
+    // Push subscription to changes in the caller's own bookings; close it when done
+    public QueueSubscription subscribeMyQueue(QueueSubscription.Listener listener) {
+        return subscribe(QUEUE, "/queue/events", listener);
+    }
+
+    public QueueSubscription subscribeServiceQueue(String serviceId, QueueSubscription.Listener listener) {
+        return subscribe(QUEUE, "/queue/events?service_id=" + serviceId, listener);
+    }
+
+    // Admin: push subscription to changes in every queue
+    public QueueSubscription subscribeAllQueues(QueueSubscription.Listener listener) {
+        return subscribe(ADMIN, "/admin/queue/events", listener);
+    }
+
+    private QueueSubscription subscribe(ApiTransport.Service service, String path, QueueSubscription.Listener listener) {
+        // Token is read on every (re)connect so a re-login is picked up
+        QueueSubscription subscription = new QueueSubscription(transport, service, path, this::getToken, listener);
+        subscription.start();
+        return subscription;
+    }
+
+    // ==========================================
+    // HELPERS
+    // ==========================================
+
+    // Helper method to send a request over the shared transport.
+    // Cancelling the returned future also cancels the HTTP exchange.
+    private CompletableFuture<String> executeAsync(String method, ApiTransport.Service service, String path,
+                                                   String authToken, JSONObject json) {
+        HttpRequest.Builder builder = transport.request(service, path, authToken);
+        if (json != null) {
+            builder.header("Content-Type", "application/json");
+            builder.method(method, HttpRequest.BodyPublishers.ofString(json.toString()));
+        } else {
+            builder.method(method, HttpRequest.BodyPublishers.noBody());
         }
-        br.close();
-        
+
+        CompletableFuture<HttpResponse<String>> exchange = transport.sendAsync(service, builder.build());
+        return linkCancellation(exchange, exchange.thenApplyAsync(this::readResponse, ApiTransport.asyncExecutor()));
+    }
+
+    // Concurrent identical GETs (same path and token) share one request and its decoded result
+    private <T> CompletableFuture<T> coalesced(ApiTransport.Service service, String path,
+                                               Supplier<CompletableFuture<T>> loader) {
+        return inFlight.execute("GET " + service.key() + path + "|" + token(), loader);
+    }
+
+    // Conditional GET through the catalog cache; fresh hits never touch the network
+    private <T> CompletableFuture<T> fetchCachedAsync(ApiTransport.Service service, String path,
+                                                      Function<String, T> decoder) {
+        String authToken = token();
+        String key = service.key() + path + "|" + authToken;
+        long generation = catalogCache.generation();
+        ResponseCache.Entry cached = catalogCache.get(key);
+        if (cached != null && cached.isFresh(System.currentTimeMillis())) {
+            return CompletableFuture.completedFuture(cached.getValue());
+        }
+
+        HttpRequest.Builder builder = transport.request(service, path, authToken).GET();
+        if (cached != null && cached.getEtag() != null) {
+            builder.header("If-None-Match", cached.getEtag());
+        }
+        if (cached != null && cached.getLastModified() != null) {
+            builder.header("If-Modified-Since", cached.getLastModified());
+        }
+
+        CompletableFuture<HttpResponse<String>> exchange = transport.sendAsync(service, builder.build());
+        return linkCancellation(exchange, exchange.thenApplyAsync(response -> {
+            String cacheControl = response.headers().firstValue("Cache-Control").orElse("");
+            long maxAge = maxAgeSeconds(cacheControl);
+
+            if (response.statusCode() == 304 && cached != null) {
+                return catalogCache.renew(key, cached, maxAge, generation).<T>getValue();
+            }
+
+            T value = decoder.apply(readResponse(response));
+            if (!cacheControl.contains("no-store")) {
+                catalogCache.put(key, value,
+                    response.headers().firstValue("ETag").orElse(null),
+                    response.headers().firstValue("Last-Modified").orElse(null),
+                    maxAge, generation);
+            }
+            return value;
+        }, ApiTransport.asyncExecutor()));
+    }
+
+    // List GET with ?since=<watermark>; an X-Queue-Watermark header marks the body as a delta
+    private CompletableFuture<QueueStore.Delta> fetchDeltaAsync(ApiTransport.Service service, String path, String since) {
+        String url = since == null ? path : path + "?since=" + URLEncoder.encode(since, StandardCharsets.UTF_8);
+        HttpRequest request = transport.request(service, url, token()).GET().build();
+        CompletableFuture<HttpResponse<InputStream>> exchange = transport.sendStreamingAsync(service, request);
+        return linkCancellation(exchange, exchange.thenApplyAsync(response -> {
+            String watermark = response.headers().firstValue("X-Queue-Watermark").orElse(null);
+            List<QueueItem> changed = new ArrayList<>();
+            List<String> removed = new ArrayList<>();
+            try {
+                decodeObjects(service, path, response, json -> {
+                    if (json.optBoolean("deleted", false)) {
+                        removed.add(json.optString("queue_id", ""));
+                    } else {
+                        changed.add(QueueItem.fromJson(json));
+                    }
+                });
+            } catch (Exception ex) {
+                throw new CompletionException(ex);
+            }
+            return new QueueStore.Delta(changed, removed, watermark == null, watermark);
+        }, ApiTransport.decodeExecutor()));
+    }
+
+    // Drop cached catalog entries once a mutation finishes (service CRUD and bookings both change them)
+    private <T> CompletableFuture<T> invalidatingCatalog(CompletableFuture<T> mutation) {
+        return linkCancellation(mutation, mutation.whenComplete((result, ex) -> catalogCache.clear()));
+    }
+
+    public void invalidateCatalog() {
+        catalogCache.clear();
+    }
+
+    private static long maxAgeSeconds(String cacheControl) {
+        if (cacheControl.contains("no-cache")) {
+            return 0;
+        }
+        for (String directive : cacheControl.split(",")) {
+            directive = directive.trim();
+            if (directive.startsWith("max-age=")) {
+                try {
+                    return Long.parseLong(directive.substring("max-age=".length()));
+                } catch (NumberFormatException ignored) {
+                    return -1;
+                }
+            }
+        }
+        return -1;
+    }
+
+    // Package-private so the benchmarks' BenchHooks can call it directly
+    static <T> List<T> decodeList(ApiTransport.Service service, String path, String body,
+                                  Function<JSONObject, T> decoder) {
+        List<T> items = new ArrayList<>();
+        ClientEvents.JsonDecode event = ClientEvents.JsonDecode.start();
+        try {
+            int count = JsonStreamReader.forEachObject(new StringReader(body), json -> items.add(decoder.apply(json)));
+            event.finish(service, path, body.length(), count);
+        } catch (IOException ex) {
+            throw new CompletionException(ex);
+        }
+        return List.copyOf(items);
+    }
+
+    // Decode a JSON array straight off the socket, visiting elements on the calling thread
+    private int streamObjects(ApiTransport.Service service, String path, Consumer<JSONObject> visitor) throws Exception {
+        HttpRequest request = transport.request(service, path, token()).GET().build();
+        return decodeObjects(service, path, transport.sendStreaming(service, request), visitor);
+    }
+
+    // Async variant; the visitor runs on a decode thread
+    private CompletableFuture<Integer> streamObjectsAsync(ApiTransport.Service service, String path,
+                                                          Consumer<JSONObject> visitor) {
+        HttpRequest request = transport.request(service, path, token()).GET().build();
+        CompletableFuture<HttpResponse<InputStream>> exchange = transport.sendStreamingAsync(service, request);
+        return linkCancellation(exchange, exchange.thenApplyAsync(response -> {
+            try {
+                return decodeObjects(service, path, response, visitor);
+            } catch (Exception ex) {
+                throw new CompletionException(ex);
+            }
+        }, ApiTransport.decodeExecutor()));
+    }
+
+    // Decode a JSON array response directly into typed records
+    private <T> CompletableFuture<List<T>> fetchListAsync(ApiTransport.Service service, String path,
+                                                          Function<JSONObject, T> decoder) {
+        List<T> items = new ArrayList<>();
+        CompletableFuture<Integer> decoded = streamObjectsAsync(service, path, json -> items.add(decoder.apply(json)));
+        return linkCancellation(decoded, decoded.thenApply(count -> Collections.unmodifiableList(items)));
+    }
+
+    private int decodeObjects(ApiTransport.Service service, String path, HttpResponse<InputStream> response,
+                              Consumer<JSONObject> visitor) throws Exception {
+        int responseCode = response.statusCode();
+
+        if (responseCode >= 400) {
+            throw new Exception("HTTP Error " + responseCode + ": " + JsonStreamReader.readFully(response.body()));
+        }
+
+        ClientEvents.JsonDecode event = ClientEvents.JsonDecode.start();
+        int count = JsonStreamReader.forEachObject(response.body(), visitor);
+        event.finish(service, path,
+            response.headers().firstValueAsLong("Content-Length").orElse(-1), count);
+        return count;
+    }
+
+    // Cancelling a derived future also cancels the exchange it depends on
+    private static <T> CompletableFuture<T> linkCancellation(CompletableFuture<?> exchange, CompletableFuture<T> result) {
+        result.whenComplete((value, ex) -> {
+            if (result.isCancelled()) {
+                exchange.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    // Helper method to read response
+    private String readResponse(HttpResponse<String> response) {
+        int responseCode = response.statusCode();
+
         if (responseCode >= 400) {
-            throw new Exception("HTTP Error " + responseCode + ": " + response.toString());
+            throw new CompletionException(new Exception("HTTP Error " + responseCode + ": " + response.body()));
         }
-        
-        return response.toString();
+
+        return response.body();
     }
-    
+
+    // Block on an async call, rethrowing the original failure for the blocking API
+    private static <T> T await(CompletableFuture<T> future) throws Exception {
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw ex;
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw ex;
+        } catch (CancellationException ex) {
+            throw new Exception("Request cancelled", ex);
+        }
+    }
+
+    // Strip the CompletionException wrapper async callbacks receive
+    public static Throwable unwrap(Throwable ex) {
+        while ((ex instanceof CompletionException || ex instanceof ExecutionException) && ex.getCause() != null) {
+            ex = ex.getCause();
+        }
+        return ex;
+    }
+
+    // Never blocks; null when logged out or the session has expired
     public String getToken() {
-        return token;
+        return session.token();
     }
-    
+
     public boolean isAdmin() {
-        return isAdmin;
+        SessionManager.Session current = session.current();
+        return current != null && current.admin();
+    }
+
+    // Email of the logged in account, null before login
+    public String getAccount() {
+        SessionManager.Session current = session.current();
+        return current == null ? null : current.account();
+    }
+
+    private String token() {
+        return session.token();
     }
-}
\ No newline at end of file
+}
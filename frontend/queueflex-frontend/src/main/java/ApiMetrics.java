@@ -0,0 +1,162 @@
+// ApiMetrics.java
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.FileHandler;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.logging.SimpleFormatter;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Process-wide registry of per-endpoint API metrics.
+ * Endpoints are keyed by method, service and path template, with id segments
+ * folded into {id} so "/queue/delete/42" and "/queue/delete/43" share one
+ * recorder. Each recorder is registered as an MXBean under
+ * "queueflex:type=Endpoint" and the whole table is written to the
+ * "queueflex.metrics" logger on a fixed interval. That logger writes to a
+ * rotating local file (five of 1 MB) instead of the console.
+ *
+ *   -Dqueueflex.metrics.enabled=false   turn recording off
+ *   -Dqueueflex.metrics.jmx=false       skip MXBean registration
+ *   -Dqueueflex.metrics.dumpSeconds=60  log interval, 0 disables the dump
+ *   -Dqueueflex.metrics.logFile=~/.queueflex/logs/api-metrics.%g.log
+ *                                       FileHandler pattern; empty logs to the console
+ */
+public class ApiMetrics {
+
+    private static final Logger LOG = Logger.getLogger("queueflex.metrics");
+    private static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("queueflex.metrics.enabled", "true"));
+    private static final boolean JMX = Boolean.parseBoolean(System.getProperty("queueflex.metrics.jmx", "true"));
+    private static final long DUMP_SECONDS = Long.getLong("queueflex.metrics.dumpSeconds", 60);
+    private static final String LOG_FILE = System.getProperty("queueflex.metrics.logFile",
+        Paths.get(System.getProperty("user.home"), ".queueflex", "logs", "api-metrics.%g.log").toString());
+    private static final int LOG_FILE_LIMIT = 1024 * 1024;
+    private static final int LOG_FILE_COUNT = 5;
+
+    private static final Map<String, EndpointMetrics> ENDPOINTS = new ConcurrentHashMap<>();
+    private static volatile ScheduledExecutorService dumper;
+
+    private ApiMetrics() {
+    }
+
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    // Recorder for a request; the path may carry ids and a query string
+    public static EndpointMetrics endpoint(String method, ApiTransport.Service service, String path) {
+        String key = method + " " + service.key() + " " + template(path);
+        EndpointMetrics metrics = ENDPOINTS.get(key);
+        if (metrics != null) {
+            return metrics;
+        }
+        return ENDPOINTS.computeIfAbsent(key, name -> {
+            EndpointMetrics created = new EndpointMetrics(name);
+            register(created);
+            startDumper();
+            return created;
+        });
+    }
+
+    public static List<EndpointMetrics> snapshot() {
+        List<EndpointMetrics> all = new ArrayList<>(ENDPOINTS.values());
+        all.sort((a, b) -> a.getEndpoint().compareTo(b.getEndpoint()));
+        return all;
+    }
+
+    // Write one line per endpoint to the metrics log
+    public static void dump() {
+        List<EndpointMetrics> all = snapshot();
+        if (all.isEmpty() || !LOG.isLoggable(Level.INFO)) {
+            return;
+        }
+        StringBuilder out = new StringBuilder("API metrics (" + all.size() + " endpoints)");
+        for (EndpointMetrics metrics : all) {
+            out.append(System.lineSeparator()).append("  ").append(metrics.summary());
+        }
+        LOG.info(out.toString());
+    }
+
+    // Strip the query and replace any path segment carrying a digit with {id}
+    static String template(String path) {
+        int query = path.indexOf('?');
+        String bare = query >= 0 ? path.substring(0, query) : path;
+        String[] segments = bare.split("/", -1);
+        for (int i = 0; i < segments.length; i++) {
+            if (segments[i].chars().anyMatch(Character::isDigit)) {
+                segments[i] = "{id}";
+            }
+        }
+        return String.join("/", segments);
+    }
+
+    private static void register(EndpointMetrics metrics) {
+        if (!JMX) {
+            return;
+        }
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName("queueflex:type=Endpoint,name=" + ObjectName.quote(metrics.getEndpoint()));
+            if (!server.isRegistered(name)) {
+                server.registerMBean(metrics, name);
+            }
+        } catch (Exception e) {
+            LOG.log(Level.FINE, "Could not register MXBean for " + metrics.getEndpoint(), e);
+        }
+    }
+
+    private static void startDumper() {
+        if (DUMP_SECONDS <= 0 || dumper != null) {
+            return;
+        }
+        synchronized (ApiMetrics.class) {
+            if (dumper != null) {
+                return;
+            }
+            openLogFile();
+            ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "queueflex-metrics");
+                thread.setDaemon(true);
+                return thread;
+            });
+            executor.scheduleAtFixedRate(() -> {
+                try {
+                    dump();
+                } catch (RuntimeException e) {
+                    LOG.log(Level.WARNING, "Metrics dump failed", e);
+                }
+            }, DUMP_SECONDS, DUMP_SECONDS, TimeUnit.SECONDS);
+            dumper = executor;
+        }
+    }
+
+    // Falls back to the console handlers when the file can't be opened
+    private static void openLogFile() {
+        if (LOG_FILE.isEmpty()) {
+            return;
+        }
+        try {
+            Path parent = Paths.get(LOG_FILE).toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            FileHandler handler = new FileHandler(LOG_FILE, LOG_FILE_LIMIT, LOG_FILE_COUNT, true);
+            handler.setFormatter(new SimpleFormatter());
+            LOG.addHandler(handler);
+            LOG.setUseParentHandlers(false);
+        } catch (IOException | RuntimeException e) {
+            LOG.log(Level.WARNING, "Could not open metrics log " + LOG_FILE, e);
+        }
+    }
+}
@@ -0,0 +1,339 @@
+// ApiTransport.java
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shared HTTP transport for the QueueFlex Java client.
+ * Keeps one pooled keep-alive HttpClient per backend service so repeated
+ * calls reuse open connections instead of paying a TCP handshake per click.
+ *
+ * Every setting can be overridden with system properties, e.g.
+ *   -Dqueueflex.queue.url=http://queue-host:4000
+ *   -Dqueueflex.queue.connectTimeoutMs=2000
+ *   -Dqueueflex.queue.readTimeoutMs=8000
+ *   -Dqueueflex.api.threads=4
+ *   -Dqueueflex.events.url=http://localhost:4100   event streams (e.g. QueueEventBridge);
+ *                                                  unset, each service serves its own
+ *
+ * Every exchange is timed and counted per endpoint in ApiMetrics.
+ *
+ * Instances are immutable and safe to share between threads.
+ */
+public class ApiTransport {
+
+    // Backend services the client talks to
+    public enum Service {
+        AUTH("auth", "http://localhost:3000"),
+        QUEUE("queue", "http://localhost:4000"),
+        ADMIN("admin", "http://localhost:5000");
+
+        private final String key;
+        private final String defaultUrl;
+
+        Service(String key, String defaultUrl) {
+            this.key = key;
+            this.defaultUrl = defaultUrl;
+        }
+
+        public String key() {
+            return key;
+        }
+    }
+
+    // Per-service connection settings
+    public static final class Endpoint {
+        private final String baseUrl;
+        private final Duration connectTimeout;
+        private final Duration readTimeout;
+        private final HttpClient client;
+
+        public Endpoint(String baseUrl, Duration connectTimeout, Duration readTimeout) {
+            this.baseUrl = baseUrl;
+            this.connectTimeout = connectTimeout;
+            this.readTimeout = readTimeout;
+            this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(connectTimeout)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .executor(ASYNC_EXECUTOR)
+                .build();
+        }
+
+        public String getBaseUrl() {
+            return baseUrl;
+        }
+
+        public Duration getConnectTimeout() {
+            return connectTimeout;
+        }
+
+        public Duration getReadTimeout() {
+            return readTimeout;
+        }
+
+        public HttpClient getClient() {
+            return client;
+        }
+    }
+
+    private static final long DEFAULT_CONNECT_TIMEOUT_MS = 3000;
+    private static final long DEFAULT_READ_TIMEOUT_MS = 10000;
+
+    // Bounded pool shared by every async call and the HttpClients themselves
+    private static final ExecutorService ASYNC_EXECUTOR = newAsyncExecutor();
+    // Streamed bodies are read on these threads: a read blocks until ASYNC_EXECUTOR delivers the bytes
+    private static final ExecutorService DECODE_EXECUTOR = newDecodeExecutor();
+
+    private static volatile ApiTransport shared;
+
+    private final Map<Service, Endpoint> endpoints;
+    // Base URL for /queue/events and /admin/queue/events; null means the service's own URL
+    private final String eventsUrl;
+
+    public ApiTransport(Map<Service, Endpoint> endpoints) {
+        this(endpoints, null);
+    }
+
+    public ApiTransport(Map<Service, Endpoint> endpoints, String eventsUrl) {
+        this.endpoints = new EnumMap<>(endpoints);
+        this.eventsUrl = eventsUrl;
+        for (Service service : Service.values()) {
+            if (!this.endpoints.containsKey(service)) {
+                throw new IllegalArgumentException("No endpoint configured for " + service);
+            }
+        }
+    }
+
+    // Process-wide transport used by every ApiClient unless one is passed in
+    public static ApiTransport shared() {
+        ApiTransport result = shared;
+        if (result == null) {
+            synchronized (ApiTransport.class) {
+                result = shared;
+                if (result == null) {
+                    result = fromSystemProperties();
+                    shared = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    public static ApiTransport fromSystemProperties() {
+        Map<Service, Endpoint> endpoints = new EnumMap<>(Service.class);
+        for (Service service : Service.values()) {
+            String prefix = "queueflex." + service.key + ".";
+            String url = System.getProperty(prefix + "url", service.defaultUrl);
+            long connectMs = Long.getLong(prefix + "connectTimeoutMs", DEFAULT_CONNECT_TIMEOUT_MS);
+            long readMs = Long.getLong(prefix + "readTimeoutMs", DEFAULT_READ_TIMEOUT_MS);
+            endpoints.put(service, new Endpoint(url, Duration.ofMillis(connectMs), Duration.ofMillis(readMs)));
+        }
+        return new ApiTransport(endpoints, System.getProperty("queueflex.events.url"));
+    }
+
+    private static ExecutorService newAsyncExecutor() {
+        int threads = Integer.getInteger("queueflex.api.threads",
+            Math.max(2, Math.min(8, Runtime.getRuntime().availableProcessors())));
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(), daemonThreads("queueflex-api-"));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    // Unbounded, one thread per body being read, so a decode never waits behind another
+    private static ExecutorService newDecodeExecutor() {
+        return new ThreadPoolExecutor(0, Integer.MAX_VALUE, 30, TimeUnit.SECONDS,
+            new SynchronousQueue<>(), daemonThreads("queueflex-decode-"));
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    public static ExecutorService asyncExecutor() {
+        return ASYNC_EXECUTOR;
+    }
+
+    // For work that blocks reading a sendStreamingAsync body; never use asyncExecutor() for that
+    public static ExecutorService decodeExecutor() {
+        return DECODE_EXECUTOR;
+    }
+
+    public Endpoint endpoint(Service service) {
+        return endpoints.get(service);
+    }
+
+    // Build a request against a service with its read timeout and auth header applied
+    public HttpRequest.Builder request(Service service, String path, String token) {
+        Endpoint endpoint = endpoints.get(service);
+        return request(endpoint, endpoint.baseUrl, path, token);
+    }
+
+    // Same as request(), but against queueflex.events.url when one is configured
+    public HttpRequest.Builder eventsRequest(Service service, String path, String token) {
+        Endpoint endpoint = endpoints.get(service);
+        return request(endpoint, eventsUrl != null ? eventsUrl : endpoint.baseUrl, path, token);
+    }
+
+    private static HttpRequest.Builder request(Endpoint endpoint, String baseUrl, String path, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+            .timeout(endpoint.readTimeout);
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder;
+    }
+
+    public HttpResponse<String> send(Service service, HttpRequest request) throws Exception {
+        EndpointMetrics metrics = metricsFor(service, request);
+        ClientEvents.HttpRequest event = ClientEvents.HttpRequest.start();
+        long start = System.nanoTime();
+        try {
+            HttpResponse<String> response = endpoints.get(service).client.send(request, stringBody(metrics));
+            record(metrics, event, service, request, start, response, null);
+            return response;
+        } catch (Exception e) {
+            record(metrics, event, service, request, start, null, e);
+            throw e;
+        }
+    }
+
+    // Cancelling the returned future aborts the underlying exchange
+    public CompletableFuture<HttpResponse<String>> sendAsync(Service service, HttpRequest request) {
+        EndpointMetrics metrics = metricsFor(service, request);
+        ClientEvents.HttpRequest event = ClientEvents.HttpRequest.start();
+        long start = System.nanoTime();
+        CompletableFuture<HttpResponse<String>> exchange =
+            endpoints.get(service).client.sendAsync(request, stringBody(metrics));
+        exchange.whenComplete((response, ex) -> record(metrics, event, service, request, start, response, ex));
+        return exchange;
+    }
+
+    // Body is handed over unread so large listings can be decoded incrementally
+    public HttpResponse<InputStream> sendStreaming(Service service, HttpRequest request) throws Exception {
+        EndpointMetrics metrics = metricsFor(service, request);
+        ClientEvents.HttpRequest event = ClientEvents.HttpRequest.start();
+        long start = System.nanoTime();
+        try {
+            HttpResponse<InputStream> response = endpoints.get(service).client.send(request, streamBody(metrics));
+            record(metrics, event, service, request, start, response, null);
+            return response;
+        } catch (Exception e) {
+            record(metrics, event, service, request, start, null, e);
+            throw e;
+        }
+    }
+
+    public CompletableFuture<HttpResponse<InputStream>> sendStreamingAsync(Service service, HttpRequest request) {
+        EndpointMetrics metrics = metricsFor(service, request);
+        ClientEvents.HttpRequest event = ClientEvents.HttpRequest.start();
+        long start = System.nanoTime();
+        CompletableFuture<HttpResponse<InputStream>> exchange =
+            endpoints.get(service).client.sendAsync(request, streamBody(metrics));
+        exchange.whenComplete((response, ex) -> record(metrics, event, service, request, start, response, ex));
+        return exchange;
+    }
+
+    private static EndpointMetrics metricsFor(Service service, HttpRequest request) {
+        if (!ApiMetrics.isEnabled()) {
+            return null;
+        }
+        String path = request.uri().getRawPath();
+        return ApiMetrics.endpoint(request.method(), service, path == null || path.isEmpty() ? "/" : path);
+    }
+
+    // Streaming latency is time to headers; body bytes are counted as they are read
+    private static void record(EndpointMetrics metrics, ClientEvents.HttpRequest event, Service service,
+                               HttpRequest request, long start, HttpResponse<?> response, Throwable failure) {
+        if (failure instanceof CancellationException) {
+            return;
+        }
+        long sent = request.bodyPublisher().map(HttpRequest.BodyPublisher::contentLength).orElse(0L);
+        if (metrics != null) {
+            boolean failed = failure != null || response.statusCode() >= 400;
+            metrics.recordRequest(System.nanoTime() - start, sent, failed);
+        }
+        if (event.shouldCommit()) {
+            event.method = request.method();
+            event.endpoint = ClientEvents.endpoint(service, request.uri().getRawPath());
+            event.requestBytes = sent;
+            if (response != null) {
+                event.status = response.statusCode();
+                event.streamed = response.body() instanceof InputStream;
+                event.responseBytes = response.headers().firstValueAsLong("Content-Length")
+                    .orElse(response.body() instanceof String body ? body.length() : -1);
+            } else {
+                event.error = String.valueOf(failure);
+            }
+            event.commit();
+        }
+    }
+
+    private static HttpResponse.BodyHandler<String> stringBody(EndpointMetrics metrics) {
+        if (metrics == null) {
+            return HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8);
+        }
+        return info -> HttpResponse.BodySubscribers.mapping(HttpResponse.BodySubscribers.ofByteArray(), bytes -> {
+            metrics.recordBytesReceived(bytes.length);
+            return new String(bytes, StandardCharsets.UTF_8);
+        });
+    }
+
+    private static HttpResponse.BodyHandler<InputStream> streamBody(EndpointMetrics metrics) {
+        if (metrics == null) {
+            return HttpResponse.BodyHandlers.ofInputStream();
+        }
+        return info -> HttpResponse.BodySubscribers.mapping(HttpResponse.BodySubscribers.ofInputStream(),
+            in -> new CountingInputStream(in, metrics));
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+        private final EndpointMetrics metrics;
+
+        CountingInputStream(InputStream in, EndpointMetrics metrics) {
+            super(in);
+            this.metrics = metrics;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                metrics.recordBytesReceived(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+            if (n > 0) {
+                metrics.recordBytesReceived(n);
+            }
+            return n;
+        }
+    }
+}
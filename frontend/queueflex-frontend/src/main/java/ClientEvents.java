@@ -0,0 +1,169 @@
+// ClientEvents.java
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder events for the client's hot paths: HTTP exchanges, JSON
+ * decoding, and the refresh (request to data) and render (data to scene
+ * graph) phases of each screen section.
+ *
+ * All events are disabled by default, so outside a recording each one costs
+ * a begin/shouldCommit check and nothing else. Turn them on with the bundled
+ * profile:
+ *   java -XX:StartFlightRecording:settings=queueflex.jfc,filename=queueflex.jfr ...
+ */
+public final class ClientEvents {
+
+    private ClientEvents() {
+    }
+
+    @Name("queueflex.HttpRequest")
+    @Label("HTTP Request")
+    @Description("One exchange with a backend service, from send to response headers")
+    @Category({"QueueFlex", "API"})
+    @Enabled(false)
+    @StackTrace(false)
+    public static class HttpRequest extends Event {
+        @Label("Method")
+        String method;
+
+        @Label("Endpoint")
+        @Description("Service and path template, ids folded into {id}")
+        String endpoint;
+
+        @Label("Status")
+        int status;
+
+        @Label("Request Bytes")
+        @DataAmount
+        long requestBytes;
+
+        @Label("Response Bytes")
+        @Description("Content-Length, or the decoded body length when absent; -1 for unread streams")
+        @DataAmount
+        long responseBytes;
+
+        @Label("Streamed")
+        boolean streamed;
+
+        @Label("Error")
+        String error;
+
+        public static HttpRequest start() {
+            HttpRequest event = new HttpRequest();
+            event.begin();
+            return event;
+        }
+    }
+
+    @Name("queueflex.JsonDecode")
+    @Label("JSON Decode")
+    @Description("Decoding a JSON array response into records")
+    @Category({"QueueFlex", "API"})
+    @Enabled(false)
+    @StackTrace(false)
+    public static class JsonDecode extends Event {
+        @Label("Endpoint")
+        String endpoint;
+
+        @Label("Payload Size")
+        @Description("Body size when known up front, -1 when decoded off the socket")
+        @DataAmount
+        long payloadBytes;
+
+        @Label("Item Count")
+        int itemCount;
+
+        public static JsonDecode start() {
+            JsonDecode event = new JsonDecode();
+            event.begin();
+            return event;
+        }
+
+        public void finish(ApiTransport.Service service, String path, long payloadBytes, int itemCount) {
+            if (shouldCommit()) {
+                this.endpoint = endpoint(service, path);
+                this.payloadBytes = payloadBytes;
+                this.itemCount = itemCount;
+                commit();
+            }
+        }
+    }
+
+    @Name("queueflex.ScreenRefresh")
+    @Label("Screen Refresh")
+    @Description("A screen section waiting for its data, from request to result")
+    @Category({"QueueFlex", "UI"})
+    @Enabled(false)
+    @StackTrace(false)
+    public static class ScreenRefresh extends Event {
+        @Label("Screen")
+        String screen;
+
+        @Label("Section")
+        String section;
+
+        @Label("Item Count")
+        int itemCount;
+
+        @Label("Failed")
+        boolean failed;
+
+        public static ScreenRefresh start() {
+            ScreenRefresh event = new ScreenRefresh();
+            event.begin();
+            return event;
+        }
+
+        public void finish(String screen, String section, int itemCount, Throwable error) {
+            if (shouldCommit()) {
+                this.screen = screen;
+                this.section = section;
+                this.itemCount = itemCount;
+                this.failed = error != null;
+                commit();
+            }
+        }
+    }
+
+    @Name("queueflex.ScreenRender")
+    @Label("Screen Render")
+    @Description("Applying fetched data to a screen section on the FX thread")
+    @Category({"QueueFlex", "UI"})
+    @Enabled(false)
+    @StackTrace(false)
+    public static class ScreenRender extends Event {
+        @Label("Screen")
+        String screen;
+
+        @Label("Section")
+        String section;
+
+        @Label("Item Count")
+        int itemCount;
+    }
+
+    // Label shared by the API events and metrics: "queue /queue/service/{id}"
+    static String endpoint(ApiTransport.Service service, String path) {
+        return service.key() + " " + ApiMetrics.template(path);
+    }
+
+    // Run a render step inside a ScreenRender event
+    public static void render(String screen, String section, int itemCount, Runnable render) {
+        ScreenRender event = new ScreenRender();
+        event.begin();
+        render.run();
+        if (event.shouldCommit()) {
+            event.screen = screen;
+            event.section = section;
+            event.itemCount = itemCount;
+            event.commit();
+        }
+    }
+}
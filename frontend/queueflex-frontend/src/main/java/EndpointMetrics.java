@@ -0,0 +1,104 @@
+// EndpointMetrics.java
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Request counters and latency histogram for one API endpoint
+ * ("GET queue /queue/service/{id}"). Updated lock-free from the HTTP
+ * threads and readable over JMX as an MXBean.
+ */
+public class EndpointMetrics implements EndpointMetricsMXBean {
+
+    private final String endpoint;
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder bytesSent = new LongAdder();
+    private final LongAdder bytesReceived = new LongAdder();
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    public EndpointMetrics(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    public void recordRequest(long elapsedNanos, long requestBytes, boolean failed) {
+        requests.increment();
+        if (failed) {
+            errors.increment();
+        }
+        if (requestBytes > 0) {
+            bytesSent.add(requestBytes);
+        }
+        latency.record(TimeUnit.NANOSECONDS.toMicros(elapsedNanos));
+    }
+
+    // Response bodies may be counted separately, as a stream is consumed
+    public void recordBytesReceived(long bytes) {
+        bytesReceived.add(bytes);
+    }
+
+    @Override
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    @Override
+    public long getRequests() {
+        return requests.sum();
+    }
+
+    @Override
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    @Override
+    public long getBytesSent() {
+        return bytesSent.sum();
+    }
+
+    @Override
+    public long getBytesReceived() {
+        return bytesReceived.sum();
+    }
+
+    @Override
+    public double getLatencyMeanMillis() {
+        return latency.meanMicros() / 1000.0;
+    }
+
+    @Override
+    public double getLatencyP50Millis() {
+        return latency.percentileMicros(0.50) / 1000.0;
+    }
+
+    @Override
+    public double getLatencyP90Millis() {
+        return latency.percentileMicros(0.90) / 1000.0;
+    }
+
+    @Override
+    public double getLatencyP99Millis() {
+        return latency.percentileMicros(0.99) / 1000.0;
+    }
+
+    @Override
+    public double getLatencyMaxMillis() {
+        return latency.maxMicros() / 1000.0;
+    }
+
+    @Override
+    public void reset() {
+        requests.reset();
+        errors.reset();
+        bytesSent.reset();
+        bytesReceived.reset();
+        latency.reset();
+    }
+
+    // One log line: endpoint, counts and latency summary
+    public String summary() {
+        return String.format("%s requests=%d errors=%d sent=%dB received=%dB p50=%.1fms p90=%.1fms p99=%.1fms max=%.1fms",
+            endpoint, getRequests(), getErrors(), getBytesSent(), getBytesReceived(),
+            getLatencyP50Millis(), getLatencyP90Millis(), getLatencyP99Millis(), getLatencyMaxMillis());
+    }
+}
@@ -0,0 +1,18 @@
+// EndpointMetricsMXBean.java
+
+/**
+ * JMX view of one endpoint's request counters and latency percentiles.
+ */
+public interface EndpointMetricsMXBean {
+    String getEndpoint();
+    long getRequests();
+    long getErrors();
+    long getBytesSent();
+    long getBytesReceived();
+    double getLatencyMeanMillis();
+    double getLatencyP50Millis();
+    double getLatencyP90Millis();
+    double getLatencyP99Millis();
+    double getLatencyMaxMillis();
+    void reset();
+}
@@ -0,0 +1,42 @@
+// FrameCoalescer.java
+import javafx.application.Platform;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Coalesces UI updates posted from background threads into one FX pulse.
+ * Updates are keyed; a newer update replaces a pending one with the same key,
+ * and everything posted before the flush runs in a single Platform.runLater,
+ * so a burst of responses costs one layout and render pass instead of one each.
+ */
+public class FrameCoalescer {
+
+    private final Map<String, Runnable> pending = new LinkedHashMap<>();
+    private boolean scheduled;
+
+    public void post(String key, Runnable update) {
+        synchronized (pending) {
+            pending.remove(key);
+            pending.put(key, update);
+            if (scheduled) {
+                return;
+            }
+            scheduled = true;
+        }
+        Platform.runLater(this::flush);
+    }
+
+    private void flush() {
+        List<Runnable> updates;
+        synchronized (pending) {
+            updates = new ArrayList<>(pending.values());
+            pending.clear();
+            scheduled = false;
+        }
+        for (Runnable update : updates) {
+            update.run();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+// JsonStreamReader.java
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+import org.json.*;
+
+/**
+ * Incremental reader for JSON array responses.
+ * Parses one array element at a time straight off the response stream and
+ * hands it to a visitor, so only the current element is ever held in memory
+ * no matter how many items the backend returns.
+ */
+public class JsonStreamReader {
+
+    private static final int BUFFER_SIZE = 16 * 1024;
+
+    private JsonStreamReader() {
+    }
+
+    // Visit every object in a top-level JSON array; returns the number of elements visited
+    public static int forEachObject(InputStream in, Consumer<JSONObject> visitor) throws IOException {
+        return forEachObject(new InputStreamReader(in, StandardCharsets.UTF_8), visitor);
+    }
+
+    public static int forEachObject(Reader in, Consumer<JSONObject> visitor) throws IOException {
+        try (BufferedReader reader = new BufferedReader(in, BUFFER_SIZE)) {
+            JSONTokener tokener = new JSONTokener(reader);
+
+            if (tokener.nextClean() != '[') {
+                throw tokener.syntaxError("Expected a JSON array");
+            }
+
+            int count = 0;
+            char c = tokener.nextClean();
+            if (c == ']') {
+                return count;
+            }
+            tokener.back();
+
+            while (true) {
+                Object value = tokener.nextValue();
+                if (!(value instanceof JSONObject)) {
+                    throw tokener.syntaxError("Expected a JSON object element");
+                }
+                visitor.accept((JSONObject) value);
+                count++;
+
+                c = tokener.nextClean();
+                if (c == ']') {
+                    return count;
+                }
+                if (c != ',') {
+                    throw tokener.syntaxError("Expected ',' or ']'");
+                }
+            }
+        }
+    }
+
+    // Drain a (small) error body into a string for the exception message
+    public static String readFully(InputStream in) throws IOException {
+        try (InputStream is = in) {
+            return new String(is.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+// KeyedChildren.java
+import javafx.collections.ObservableList;
+import javafx.scene.Node;
+import javafx.scene.layout.Pane;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Keyed reconciliation of a container's children against a list of records.
+ * Each item is rendered once and its node is kept for as long as the item
+ * with the same key stays equal; only changed items are re-rendered, new
+ * ones inserted and missing ones removed, so a refresh costs work in
+ * proportion to what changed rather than to the size of the list.
+ *
+ * Must only be used on the FX application thread.
+ */
+public class KeyedChildren<T> {
+
+    private record Rendered<T>(T item, Node node) {
+    }
+
+    private final Pane container;
+    private final Function<T, String> keyOf;
+    private final Function<T, ? extends Node> render;
+    private Map<String, Rendered<T>> rendered = new HashMap<>();
+
+    public KeyedChildren(Pane container, Function<T, String> keyOf, Function<T, ? extends Node> render) {
+        this.container = container;
+        this.keyOf = keyOf;
+        this.render = render;
+    }
+
+    public void reconcile(List<T> items) {
+        Map<String, Rendered<T>> next = new HashMap<>(items.size() * 2);
+        List<Node> desired = new ArrayList<>(items.size());
+        for (T item : items) {
+            String key = keyOf.apply(item);
+            if (next.containsKey(key)) {
+                continue;
+            }
+            Rendered<T> previous = rendered.get(key);
+            Rendered<T> current = previous != null && previous.item().equals(item)
+                ? previous
+                : new Rendered<>(item, render.apply(item));
+            next.put(key, current);
+            desired.add(current.node());
+        }
+        rendered = next;
+
+        // Drop stale cards and any placeholder in a single change
+        ObservableList<Node> children = container.getChildren();
+        Set<Node> keep = Collections.newSetFromMap(new IdentityHashMap<>());
+        keep.addAll(desired);
+        children.removeIf(node -> !keep.contains(node));
+
+        // Insert new or re-rendered nodes and move reordered ones into place
+        for (int i = 0; i < desired.size(); i++) {
+            Node node = desired.get(i);
+            if (i < children.size() && children.get(i) == node) {
+                continue;
+            }
+            if (node.getParent() == container) {
+                children.remove(node);
+            }
+            children.add(i, node);
+        }
+    }
+
+    // Replace everything with a single message node (error / empty state)
+    public void showMessage(Node message) {
+        rendered = new HashMap<>();
+        container.getChildren().setAll(message);
+    }
+
+    /**
+     * Same reconciliation for a plain item list such as the one behind a
+     * TableView: unchanged items are left alone, changed ones are replaced in
+     * place, missing ones removed and new ones appended.
+     */
+    public static <T> void reconcileItems(ObservableList<T> target, List<T> items, Function<T, String> keyOf) {
+        Map<String, T> incoming = new HashMap<>(items.size() * 2);
+        for (T item : items) {
+            incoming.putIfAbsent(keyOf.apply(item), item);
+        }
+
+        target.removeIf(item -> !incoming.containsKey(keyOf.apply(item)));
+
+        for (int i = 0; i < target.size(); i++) {
+            T current = incoming.remove(keyOf.apply(target.get(i)));
+            if (current != null && !current.equals(target.get(i))) {
+                target.set(i, current);
+            }
+        }
+
+        if (!incoming.isEmpty()) {
+            List<T> added = new ArrayList<>(incoming.size());
+            for (T item : items) {
+                if (incoming.remove(keyOf.apply(item)) != null) {
+                    added.add(item);
+                }
+            }
+            target.addAll(added);
+        }
+    }
+}
@@ -15,8 +15,12 @@ public class LoginScreen {
     private ApiClient apiClient;
     
     public LoginScreen(Stage stage) {
+        this(stage, new ApiClient());
+    }
+    
+    public LoginScreen(Stage stage, ApiClient apiClient) {
         this.stage = stage;
-        this.apiClient = new ApiClient();
+        this.apiClient = apiClient;
     }
     
     public void show() {
@@ -276,41 +280,34 @@ public class LoginScreen {
         loginButton.setDisable(true);
         loginButton.setText("Signing in...");
         
-        // Simulate async operation
-        new Thread(() -> {
-            try {
-                boolean success = apiClient.login(email, password);
-                
-                javafx.application.Platform.runLater(() -> {
-                    if (success) {
-                        showMessage(messageLabel, "Login successful! Redirecting...", true);
-                        
-                        // Delay before switching screens
-                        PauseTransition pause = new PauseTransition(Duration.seconds(1));
-                        pause.setOnFinished(event -> {
-                            if (apiClient.isAdmin()) {
-                                AdminScreen adminScreen = new AdminScreen(stage, apiClient);
-                                adminScreen.show();
-                            } else {
-                                QueueScreen queueScreen = new QueueScreen(stage, apiClient);
-                                queueScreen.show();
-                            }
-                        });
-                        pause.play();
-                    } else {
-                        showMessage(messageLabel, "Invalid email or password", false);
-                        loginButton.setDisable(false);
-                        loginButton.setText("Sign In");
-                    }
-                });
-            } catch (Exception ex) {
-                javafx.application.Platform.runLater(() -> {
-                    showMessage(messageLabel, "Error: " + ex.getMessage(), false);
+        apiClient.loginAsync(email, password).whenComplete((success, error) -> {
+            javafx.application.Platform.runLater(() -> {
+                if (error != null) {
+                    showMessage(messageLabel, "Error: " + ApiClient.unwrap(error).getMessage(), false);
                     loginButton.setDisable(false);
                     loginButton.setText("Sign In");
-                });
-            }
-        }).start();
+                } else if (success) {
+                    showMessage(messageLabel, "Login successful! Redirecting...", true);
+                    
+                    // Delay before switching screens
+                    PauseTransition pause = new PauseTransition(Duration.seconds(1));
+                    pause.setOnFinished(event -> {
+                        if (apiClient.isAdmin()) {
+                            AdminScreen adminScreen = new AdminScreen(stage, apiClient);
+                            adminScreen.show();
+                        } else {
+                            QueueScreen queueScreen = new QueueScreen(stage, apiClient);
+                            queueScreen.show();
+                        }
+                    });
+                    pause.play();
+                } else {
+                    showMessage(messageLabel, "Invalid email or password", false);
+                    loginButton.setDisable(false);
+                    loginButton.setText("Sign In");
+                }
+            });
+        });
     }
     
     private void showMessage(Label label, String message, boolean success) {
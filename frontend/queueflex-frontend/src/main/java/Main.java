@@ -1,6 +1,7 @@
 // Main.java - Enhanced with splash screen and better initialization
 import javafx.animation.*;
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
 import javafx.scene.control.Label;
@@ -12,9 +13,26 @@ import javafx.scene.text.FontWeight;
 import javafx.stage.Stage;
 import javafx.stage.StageStyle;
 import javafx.util.Duration;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Instant;
 
 public class Main extends Application {
     
+    // Everything the first screens touch, loaded and initialised while the splash is up
+    private static final String[] SCREEN_CLASSES = {
+        "LoginScreen", "SignupScreen", "QueueScreen", "AdminScreen",
+        "ApiClient", "SessionManager", "QueueItem", "QueueStatus", "Service", "QueueStats", "QueueStore",
+        "KeyedChildren", "FrameCoalescer", "RefreshScheduler", "SnapshotCache", "JsonStreamReader"
+    };
+    private static final String[] CONTROL_CLASSES = {
+        "javafx.scene.control.TabPane", "javafx.scene.control.TableView", "javafx.scene.control.ScrollPane",
+        "javafx.scene.control.Dialog", "javafx.scene.control.ComboBox", "javafx.scene.control.TextArea",
+        "javafx.scene.control.PasswordField", "javafx.scene.control.ProgressIndicator"
+    };
+    
+    private final ApiClient apiClient = new ApiClient();
+    
     @Override
     public void start(Stage primaryStage) {
         // Show splash screen first
@@ -56,18 +74,54 @@ public class Main extends Application {
         splashStage.centerOnScreen();
         splashStage.show();
         
-        // Animate progress bar
-        Timeline timeline = new Timeline(
-            new KeyFrame(Duration.ZERO, new KeyValue(progressBar.progressProperty(), 0)),
-            new KeyFrame(Duration.seconds(2), new KeyValue(progressBar.progressProperty(), 1))
-        );
-        
-        timeline.setOnFinished(e -> {
-            splashStage.close();
-            showMainApp(primaryStage);
+        // Real warm-up instead of a fixed delay: the splash closes as soon as it is done
+        StartupWarmup warmup = createWarmup();
+        progressBar.setProgress(0);
+        warmup.run((done, phase) -> Platform.runLater(() -> {
+            progressBar.setProgress((double) done / warmup.size());
+            loadingLabel.setText("Ready: " + phase + " (" + done + "/" + warmup.size() + ")");
+        })).thenAccept(phases -> {
+            StartupWarmup.record(phases, millisSinceLaunch());
+            Platform.runLater(() -> {
+                splashStage.close();
+                showMainApp(primaryStage);
+            });
         });
-        
-        timeline.play();
+    }
+    
+    private StartupWarmup createWarmup() {
+        StartupWarmup warmup = new StartupWarmup();
+        for (ApiTransport.Service service : ApiTransport.Service.values()) {
+            warmup.add(service.key() + "-connection", () -> warmConnection(service));
+        }
+        // A still-valid saved session skips the login screen entirely
+        warmup.add("session", apiClient::restoreSession);
+        warmup.add("screens", () -> preloadClasses(SCREEN_CLASSES));
+        warmup.add("controls", () -> preloadClasses(CONTROL_CLASSES));
+        return warmup;
+    }
+    
+    // Any response will do: it resolves the host and leaves a pooled keep-alive connection behind.
+    // Sent on the service's client directly, so the 404 most services give "/" stays out of ApiMetrics.
+    private static void warmConnection(ApiTransport.Service service) throws Exception {
+        ApiTransport transport = ApiTransport.shared();
+        HttpRequest request = transport.request(service, "/", null)
+            .method("HEAD", HttpRequest.BodyPublishers.noBody())
+            .build();
+        transport.endpoint(service).getClient().send(request, HttpResponse.BodyHandlers.discarding());
+    }
+    
+    private static void preloadClasses(String[] classNames) throws ClassNotFoundException {
+        ClassLoader loader = Main.class.getClassLoader();
+        for (String className : classNames) {
+            Class.forName(className, true, loader);
+        }
+    }
+    
+    private static long millisSinceLaunch() {
+        return ProcessHandle.current().info().startInstant()
+            .map(start -> java.time.Duration.between(start, Instant.now()).toMillis())
+            .orElse(-1L);
     }
     
     private void showMainApp(Stage primaryStage) {
@@ -75,9 +129,17 @@ public class Main extends Application {
         primaryStage.setMinWidth(1000);
         primaryStage.setMinHeight(750);
         
-        // Start with login screen
-        LoginScreen loginScreen = new LoginScreen(primaryStage);
-        loginScreen.show();
+        // Start with login screen, unless the warm-up restored a session
+        if (apiClient.getToken() == null) {
+            LoginScreen loginScreen = new LoginScreen(primaryStage, apiClient);
+            loginScreen.show();
+        } else if (apiClient.isAdmin()) {
+            AdminScreen adminScreen = new AdminScreen(primaryStage, apiClient);
+            adminScreen.show();
+        } else {
+            QueueScreen queueScreen = new QueueScreen(primaryStage, apiClient);
+            queueScreen.show();
+        }
         
         // Fade in animation
         FadeTransition fadeIn = new FadeTransition(Duration.millis(500), primaryStage.getScene().getRoot());
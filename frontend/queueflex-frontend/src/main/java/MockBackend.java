@@ -0,0 +1,844 @@
+// MockBackend.java
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.json.*;
+
+/**
+ * In-process stand-in for the auth, queue and admin services, so the Java
+ * clients can be load- and integration-tested offline without the docker
+ * stack. It implements the endpoints ApiClient, the ticket generator and the
+ * health monitor call, with the Flask/Node response shapes:
+ *
+ *   /login /signup
+ *   /services /services/{id}
+ *   /queue/add /queue/get /queue/get/{id} /queue/service/{id} /queue/update/{id} /queue/delete/{id}
+ *   /admin/services[/{id}] /admin/queue/all /admin/queue/stats /admin/queue/{id}
+ *   /queue/events /admin/queue/events   (a QueueEventBridge polling the mock itself)
+ *
+ * Data is synthetic and generated from a seed, so the same settings always
+ * serve the same catalog and bookings. Every user's password is "password";
+ * admin@queueflex.test is the admin, user1..userN@queueflex.test are customers.
+ *
+ * Settings (system properties):
+ *   queueflex.mock.users=200  services=20  bookings=5000  seed=42
+ *   queueflex.mock.purposeChars=24         purpose length, i.e. booking payload size
+ *   queueflex.mock.latency=lognormal:20,0.5
+ *       0 | fixed:MS | uniform:MIN-MAX | normal:MEAN,SD | lognormal:MEDIAN,SIGMA
+ *   queueflex.mock.errorRate=0.01          share of requests answered with a 500
+ *   queueflex.mock.<auth|queue|admin>.latency / .errorRate override per service
+ *   queueflex.mock.deltas=true             answer ?since= with deltas and X-Queue-Watermark
+ *   queueflex.mock.tokenTtlSeconds=86400
+ *
+ * Each service listens on the port of its queueflex.<service>.url, so the
+ * client and the mock read the same settings.
+ *
+ * Run with: java MockBackend
+ */
+public class MockBackend implements AutoCloseable {
+
+    // Response delay in milliseconds, drawn per request
+    public interface Latency {
+        long nextMillis(SplittableRandom random);
+
+        static Latency parse(String spec) {
+            String value = spec.trim();
+            if (value.isEmpty() || value.equals("0")) {
+                return random -> 0;
+            }
+            int colon = value.indexOf(':');
+            String kind = colon < 0 ? "fixed" : value.substring(0, colon);
+            String[] args = (colon < 0 ? value : value.substring(colon + 1)).split("[,-]");
+            double a = Double.parseDouble(args[0]);
+            double b = args.length > 1 ? Double.parseDouble(args[1]) : 0;
+            switch (kind) {
+                case "fixed":
+                    return random -> (long) a;
+                case "uniform":
+                    return random -> (long) (a + random.nextDouble() * (b - a));
+                case "normal":
+                    return random -> Math.max(0, Math.round(a + gaussian(random) * b));
+                case "lognormal":
+                    return random -> Math.round(a * Math.exp(gaussian(random) * b));
+                default:
+                    throw new IllegalArgumentException("Unknown latency distribution: " + spec);
+            }
+        }
+
+        private static double gaussian(SplittableRandom random) {
+            // Box-Muller; SplittableRandom has no nextGaussian on Java 17
+            double u = 1.0 - random.nextDouble();
+            return Math.sqrt(-2 * Math.log(u)) * Math.cos(2 * Math.PI * random.nextDouble());
+        }
+    }
+
+    public record Config(int users, int services, int bookings, int purposeChars, long seed,
+                         boolean deltas, long tokenTtlSeconds,
+                         Map<ApiTransport.Service, Latency> latency,
+                         Map<ApiTransport.Service, Double> errorRate) {
+
+        public static Config fromSystemProperties() {
+            Map<ApiTransport.Service, Latency> latency = new EnumMap<>(ApiTransport.Service.class);
+            Map<ApiTransport.Service, Double> errorRate = new EnumMap<>(ApiTransport.Service.class);
+            String defaultLatency = System.getProperty("queueflex.mock.latency", "0");
+            String defaultErrorRate = System.getProperty("queueflex.mock.errorRate", "0");
+            for (ApiTransport.Service service : ApiTransport.Service.values()) {
+                String prefix = "queueflex.mock." + service.key() + ".";
+                latency.put(service, Latency.parse(System.getProperty(prefix + "latency", defaultLatency)));
+                errorRate.put(service, Double.parseDouble(System.getProperty(prefix + "errorRate", defaultErrorRate)));
+            }
+            return new Config(
+                Integer.getInteger("queueflex.mock.users", 200),
+                Integer.getInteger("queueflex.mock.services", 20),
+                Integer.getInteger("queueflex.mock.bookings", 5000),
+                Integer.getInteger("queueflex.mock.purposeChars", 24),
+                Long.getLong("queueflex.mock.seed", 42),
+                Boolean.getBoolean("queueflex.mock.deltas"),
+                Long.getLong("queueflex.mock.tokenTtlSeconds", 86400),
+                latency,
+                errorRate
+            );
+        }
+    }
+
+    private static final String PASSWORD = "password";
+    private static final int MAX_TOMBSTONES = 10_000;
+    private static final DateTimeFormatter RFC_1123 = DateTimeFormatter.RFC_1123_DATE_TIME.withZone(ZoneOffset.UTC);
+    private static final String[] FIRST_NAMES = {
+        "Aarav", "Priya", "Rohan", "Ananya", "Vikram", "Sneha", "Arjun", "Kavya", "Rahul", "Meera"
+    };
+    private static final String[] LAST_NAMES = {
+        "Sharma", "Patel", "Iyer", "Reddy", "Gupta", "Nair", "Singh", "Das", "Mehta", "Joshi"
+    };
+    private static final String[] CATEGORIES = {"Banking", "Healthcare", "Government", "Retail", "Education"};
+    private static final String[] PURPOSES = {
+        "Account opening", "Loan enquiry", "Prescription refill", "General consultation",
+        "Document verification", "Card replacement", "Follow-up visit", "Address change"
+    };
+
+    private record User(int id, String name, String email, boolean admin) {
+    }
+
+    private record Tombstone(String queueId, int userId, String serviceId, long modifiedAt) {
+    }
+
+    private record Response(int status, String body, Map<String, String> headers) {
+        static Response json(int status, String body) {
+            return new Response(status, body, Map.of());
+        }
+
+        static Response message(int status, String message) {
+            return json(status, new JSONObject().put("message", message).toString());
+        }
+    }
+
+    private static final class ServiceRow {
+        final String serviceId;
+        String name;
+        String description;
+        String category;
+        int maxCapacity;
+        int estimatedTime;
+        String status;
+        int waiting;
+
+        ServiceRow(String serviceId) {
+            this.serviceId = serviceId;
+        }
+
+        JSONObject toJson() {
+            return new JSONObject()
+                .put("service_id", serviceId)
+                .put("name", name)
+                .put("description", description)
+                .put("category", category)
+                .put("max_capacity", maxCapacity)
+                .put("estimated_time_per_person", estimatedTime)
+                .put("current_queue_count", waiting)
+                .put("status", status);
+        }
+    }
+
+    private static final class Booking {
+        final String queueId;
+        final int userId;
+        final String serviceId;
+        final long createdAt;
+        String name;
+        String purpose;
+        String serviceType;
+        String status;
+        int position;
+        long modifiedAt;
+        // Serialised form, rebuilt after a change
+        String json;
+
+        Booking(String queueId, int userId, String serviceId, long createdAt) {
+            this.queueId = queueId;
+            this.userId = userId;
+            this.serviceId = serviceId;
+            this.createdAt = createdAt;
+        }
+
+        String json() {
+            if (json == null) {
+                json = new JSONObject()
+                    .put("queue_id", queueId)
+                    .put("user_id", userId)
+                    .put("service_id", serviceId)
+                    .put("name", name)
+                    .put("purpose", purpose)
+                    .put("serviceType", serviceType)
+                    .put("position", position)
+                    .put("status", status)
+                    .put("created_at", RFC_1123.format(Instant.ofEpochMilli(createdAt)))
+                    .toString();
+            }
+            return json;
+        }
+    }
+
+    private final Config config;
+    private final SplittableRandom faults;
+    private final List<HttpServer> servers = new ArrayList<>();
+    private QueueEventBridge events;
+    private final ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "queueflex-mock");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Guarded by this
+    private final Map<String, User> usersByEmail = new HashMap<>();
+    private final Map<Integer, User> usersById = new HashMap<>();
+    private final Map<String, ServiceRow> services = new LinkedHashMap<>();
+    private final Map<String, Booking> bookings = new LinkedHashMap<>();
+    private final Map<String, List<Booking>> bookingsByService = new HashMap<>();
+    private final Deque<Tombstone> tombstones = new ArrayDeque<>();
+    private long tombstonesTrimmedAt;
+    private long clock;
+    private long catalogVersion;
+
+    public MockBackend(Config config) {
+        this.config = config;
+        this.faults = new SplittableRandom(config.seed() ^ 0x5DEECE66DL);
+        seed();
+    }
+
+    public static void main(String[] args) throws IOException {
+        Config config = Config.fromSystemProperties();
+        MockBackend backend = new MockBackend(config);
+        backend.start(ApiTransport.shared());
+        System.out.println("Mock backend serving " + config.users() + " users, " + config.services()
+            + " services, " + config.bookings() + " bookings");
+        for (ApiTransport.Service service : ApiTransport.Service.values()) {
+            System.out.println("  " + service.key() + " -> " + ApiTransport.shared().endpoint(service).getBaseUrl());
+        }
+        System.out.println("Log in as admin@queueflex.test or user1@queueflex.test, password \"" + PASSWORD + "\"");
+    }
+
+    // Listen on the port of every configured service URL (services sharing a port share a server)
+    public synchronized void start(ApiTransport transport) throws IOException {
+        events = new QueueEventBridge(transport);
+        Map<Integer, HttpServer> byPort = new HashMap<>();
+        for (ApiTransport.Service service : ApiTransport.Service.values()) {
+            int port = URI.create(transport.endpoint(service).getBaseUrl()).getPort();
+            if (byPort.containsKey(port)) {
+                continue;
+            }
+            HttpServer server = HttpServer.create(new InetSocketAddress(port), 0);
+            server.createContext("/", exchange -> handle(exchange, service));
+            events.register(server);
+            server.setExecutor(executor);
+            server.start();
+            byPort.put(port, server);
+            servers.add(server);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        for (HttpServer server : servers) {
+            server.stop(0);
+        }
+        servers.clear();
+        if (events != null) {
+            events.close();
+        }
+        executor.shutdownNow();
+    }
+
+    // ==========================================
+    // SEED DATA
+    // ==========================================
+
+    private void seed() {
+        SplittableRandom random = new SplittableRandom(config.seed());
+
+        addUser(new User(1, "Admin", "admin@queueflex.test", true));
+        for (int i = 1; i <= config.users(); i++) {
+            addUser(new User(i + 1, FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " "
+                + LAST_NAMES[random.nextInt(LAST_NAMES.length)], "user" + i + "@queueflex.test", false));
+        }
+
+        int capacity = Math.max(50, 2 * config.bookings() / Math.max(1, config.services()));
+        List<ServiceRow> rows = new ArrayList<>();
+        for (int i = 0; i < config.services(); i++) {
+            ServiceRow row = new ServiceRow(new UUID(config.seed(), i).toString());
+            row.category = CATEGORIES[i % CATEGORIES.length];
+            row.name = row.category + " Counter " + (i + 1);
+            row.description = "Walk-in and booked visits for " + PURPOSES[i % PURPOSES.length].toLowerCase();
+            row.maxCapacity = capacity;
+            row.estimatedTime = 5 + random.nextInt(25);
+            row.status = random.nextInt(10) == 0 ? "inactive" : "active";
+            services.put(row.serviceId, row);
+            bookingsByService.put(row.serviceId, new ArrayList<>());
+            rows.add(row);
+        }
+
+        // Bookings arrive every few seconds up to a minute ago; older ones are mostly done
+        long now = System.currentTimeMillis();
+        long start = now - 60_000 - config.bookings() * 3_000L;
+        for (int i = 0; i < config.bookings() && !rows.isEmpty(); i++) {
+            ServiceRow service = rows.get(random.nextInt(rows.size()));
+            long createdAt = start + i * 3_000L;
+            Booking booking = new Booking(new UUID(~config.seed(), i).toString(),
+                2 + random.nextInt(Math.max(1, config.users())), service.serviceId, createdAt);
+            booking.name = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " "
+                + LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+            booking.purpose = purpose(random);
+            booking.serviceType = service.name;
+            double age = (double) i / config.bookings();
+            int roll = random.nextInt(100);
+            booking.status = age < 0.6 ? (roll < 85 ? "completed" : "cancelled")
+                : roll < 75 ? "waiting" : roll < 90 ? "in-progress" : "completed";
+            booking.modifiedAt = createdAt;
+            bookings.put(booking.queueId, booking);
+            bookingsByService.get(service.serviceId).add(booking);
+        }
+        for (ServiceRow row : rows) {
+            recalculatePositions(row.serviceId);
+        }
+        clock = now;
+    }
+
+    private void addUser(User user) {
+        usersByEmail.put(user.email(), user);
+        usersById.put(user.id(), user);
+    }
+
+    private String purpose(SplittableRandom random) {
+        StringBuilder purpose = new StringBuilder(PURPOSES[random.nextInt(PURPOSES.length)]);
+        while (purpose.length() < config.purposeChars()) {
+            purpose.append(' ').append(PURPOSES[random.nextInt(PURPOSES.length)].toLowerCase());
+        }
+        return purpose.length() > config.purposeChars() && config.purposeChars() > 0
+            ? purpose.substring(0, config.purposeChars()) : purpose.toString();
+    }
+
+    // Waiting bookings are numbered 1..n by arrival, as the queue service does
+    private void recalculatePositions(String serviceId) {
+        ServiceRow service = services.get(serviceId);
+        int position = 0;
+        for (Booking booking : bookingsByService.getOrDefault(serviceId, List.of())) {
+            if ("waiting".equals(booking.status)) {
+                position++;
+                if (booking.position != position) {
+                    booking.position = position;
+                    touch(booking);
+                }
+            }
+        }
+        if (service != null) {
+            service.waiting = position;
+        }
+    }
+
+    // Modification clock in epoch millis, strictly increasing, used as the delta watermark
+    private long tick() {
+        clock = Math.max(clock + 1, System.currentTimeMillis());
+        return clock;
+    }
+
+    private void touch(Booking booking) {
+        booking.modifiedAt = tick();
+        booking.json = null;
+    }
+
+    // ==========================================
+    // DISPATCH
+    // ==========================================
+
+    private void handle(HttpExchange exchange, ApiTransport.Service service) throws IOException {
+        Response response;
+        try {
+            long delay;
+            boolean fail;
+            synchronized (faults) {
+                delay = config.latency().get(service).nextMillis(faults);
+                fail = faults.nextDouble() < config.errorRate().get(service);
+            }
+            if (delay > 0) {
+                Thread.sleep(delay);
+            }
+            response = fail ? Response.message(500, "Injected failure") : route(exchange);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            response = Response.message(503, "Shutting down");
+        } catch (JSONException ex) {
+            response = Response.message(400, "Invalid JSON body");
+        } catch (RuntimeException ex) {
+            response = Response.message(500, String.valueOf(ex.getMessage()));
+        }
+        send(exchange, response);
+    }
+
+    private Response route(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+        String path = exchange.getRequestURI().getPath();
+        String[] parts = path.replaceAll("^/+|/+$", "").split("/");
+        String id = parts.length > 0 ? parts[parts.length - 1] : "";
+
+        if (path.equals("/") || path.equals("/health")) {
+            return Response.json(200, "{\"status\": \"ok\"}");
+        }
+        if (path.equals("/login") && method.equals("POST")) {
+            return login(body(exchange));
+        }
+        if (path.equals("/signup") && method.equals("POST")) {
+            return signup(body(exchange));
+        }
+        if (path.equals("/services") && method.equals("GET")) {
+            return listServices(exchange);
+        }
+        if (parts.length == 2 && parts[0].equals("services") && method.equals("GET")) {
+            return getService(id);
+        }
+
+        User user = authenticate(exchange);
+        if (user == null) {
+            return exchange.getRequestHeaders().getFirst("Authorization") == null
+                ? Response.message(401, "Token required") : Response.message(403, "Invalid token");
+        }
+
+        if (parts[0].equals("queue")) {
+            return routeQueue(exchange, method, parts, id, user);
+        }
+        if (parts[0].equals("admin")) {
+            if (!user.admin()) {
+                return Response.message(403, "Admin access required");
+            }
+            return routeAdmin(exchange, method, parts, id, user);
+        }
+        return Response.message(404, "Not found");
+    }
+
+    private Response routeQueue(HttpExchange exchange, String method, String[] parts, String id, User user)
+            throws IOException {
+        String action = parts.length > 1 ? parts[1] : "";
+        switch (method + " " + action + (parts.length > 2 ? "/" : "")) {
+            case "POST add":
+                return addBooking(body(exchange), user);
+            case "GET get":
+                return listBookings(exchange, user.admin() ? null : user.id(), null, null);
+            case "GET get/":
+                return getBooking(id, user);
+            case "GET service/":
+                return listBookings(exchange, null, id, user.admin() ? null : "waiting");
+            case "PUT update/":
+                return updateBooking(id, body(exchange), user);
+            case "DELETE delete/":
+                return deleteBooking(id, user);
+            default:
+                return Response.message(404, "Not found");
+        }
+    }
+
+    private Response routeAdmin(HttpExchange exchange, String method, String[] parts, String id, User user)
+            throws IOException {
+        String resource = parts.length > 1 ? parts[1] : "";
+        if (resource.equals("services")) {
+            if (parts.length == 2) {
+                return method.equals("POST") ? createService(body(exchange), user)
+                    : method.equals("GET") ? listAllServices() : Response.message(405, "Method not allowed");
+            }
+            return method.equals("PUT") ? updateService(id, body(exchange))
+                : method.equals("DELETE") ? deleteService(id) : Response.message(405, "Method not allowed");
+        }
+        if (resource.equals("queue") && parts.length == 3) {
+            if (id.equals("all") && method.equals("GET")) {
+                return listBookings(exchange, null, null, null);
+            }
+            if (id.equals("stats") && method.equals("GET")) {
+                return stats();
+            }
+            switch (method) {
+                case "GET":
+                    return getBooking(id, user);
+                case "PUT":
+                    return updateBooking(id, body(exchange), user);
+                case "DELETE":
+                    return deleteBooking(id, user);
+                default:
+                    return Response.message(405, "Method not allowed");
+            }
+        }
+        return Response.message(404, "Not found");
+    }
+
+    // ==========================================
+    // AUTH
+    // ==========================================
+
+    private synchronized Response signup(JSONObject json) {
+        String email = json.optString("email", "");
+        if (email.isEmpty() || json.optString("password", "").isEmpty()) {
+            return Response.message(400, "Email and password required");
+        }
+        if (usersByEmail.containsKey(email)) {
+            return Response.message(400, "User already exists");
+        }
+        User user = new User(usersById.size() + 1, json.optString("name", ""), email, json.optBoolean("is_admin", false));
+        addUser(user);
+        return Response.json(200, new JSONObject()
+            .put("user_id", user.id())
+            .put("message", "User registered successfully")
+            .put("is_admin", user.admin())
+            .toString());
+    }
+
+    private synchronized Response login(JSONObject json) {
+        User user = usersByEmail.get(json.optString("email", ""));
+        if (user == null) {
+            return Response.message(401, "User not found");
+        }
+        if (!PASSWORD.equals(json.optString("password", ""))) {
+            return Response.message(401, "Incorrect password");
+        }
+        return Response.json(200, new JSONObject()
+            .put("token", issueToken(user))
+            .put("user_id", user.id())
+            .put("admin", user.admin())
+            .toString());
+    }
+
+    // JWT-shaped so clients can read the exp claim; the signature is not checked
+    private String issueToken(User user) {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        long now = System.currentTimeMillis() / 1000;
+        String header = encoder.encodeToString("{\"alg\":\"none\",\"typ\":\"JWT\"}".getBytes(StandardCharsets.UTF_8));
+        String claims = encoder.encodeToString(new JSONObject()
+            .put("user_id", user.id())
+            .put("is_admin", user.admin())
+            .put("iat", now)
+            .put("exp", now + config.tokenTtlSeconds())
+            .toString().getBytes(StandardCharsets.UTF_8));
+        return header + "." + claims + ".mock";
+    }
+
+    private synchronized User authenticate(HttpExchange exchange) {
+        String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+        if (authorization == null || !authorization.startsWith("Bearer ")) {
+            return null;
+        }
+        String[] parts = authorization.substring("Bearer ".length()).split("\\.");
+        if (parts.length != 3) {
+            return null;
+        }
+        try {
+            JSONObject claims = new JSONObject(new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8));
+            if (claims.optLong("exp", 0) * 1000 < System.currentTimeMillis()) {
+                return null;
+            }
+            return usersById.get(claims.optInt("user_id", -1));
+        } catch (IllegalArgumentException | JSONException ex) {
+            return null;
+        }
+    }
+
+    // ==========================================
+    // SERVICES
+    // ==========================================
+
+    // Active catalog with an ETag, so the client's conditional GETs can be exercised
+    private synchronized Response listServices(HttpExchange exchange) {
+        String etag = "\"catalog-" + catalogVersion + "\"";
+        if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+            return new Response(304, "", Map.of("ETag", etag));
+        }
+        JSONArray array = new JSONArray();
+        for (ServiceRow row : services.values()) {
+            if ("active".equals(row.status)) {
+                array.put(row.toJson());
+            }
+        }
+        return new Response(200, array.toString(), Map.of("ETag", etag));
+    }
+
+    private synchronized Response listAllServices() {
+        JSONArray array = new JSONArray();
+        for (ServiceRow row : services.values()) {
+            array.put(row.toJson());
+        }
+        return Response.json(200, array.toString());
+    }
+
+    private synchronized Response getService(String serviceId) {
+        ServiceRow row = services.get(serviceId);
+        return row == null ? Response.message(404, "Service not found") : Response.json(200, row.toJson().toString());
+    }
+
+    private synchronized Response createService(JSONObject json, User user) {
+        if (json.optString("name", "").isEmpty()) {
+            return Response.message(400, "Service name is required");
+        }
+        ServiceRow row = new ServiceRow(UUID.randomUUID().toString());
+        row.name = json.getString("name");
+        row.description = json.optString("description", "");
+        row.category = json.optString("category", "General");
+        row.maxCapacity = json.optInt("max_capacity", 50);
+        row.estimatedTime = json.optInt("estimated_time_per_person", 15);
+        row.status = "active";
+        services.put(row.serviceId, row);
+        bookingsByService.put(row.serviceId, new ArrayList<>());
+        catalogVersion++;
+        return Response.json(201, row.toJson().put("created_by", user.id()).toString());
+    }
+
+    private synchronized Response updateService(String serviceId, JSONObject json) {
+        ServiceRow row = services.get(serviceId);
+        if (row == null) {
+            return Response.message(404, "Service not found");
+        }
+        row.name = json.optString("name", row.name);
+        row.description = json.optString("description", row.description);
+        row.category = json.optString("category", row.category);
+        row.maxCapacity = json.optInt("max_capacity", row.maxCapacity);
+        row.estimatedTime = json.optInt("estimated_time_per_person", row.estimatedTime);
+        row.status = json.optString("status", row.status);
+        catalogVersion++;
+        return Response.json(200, row.toJson().toString());
+    }
+
+    private synchronized Response deleteService(String serviceId) {
+        if (services.remove(serviceId) == null) {
+            return Response.message(404, "Service not found");
+        }
+        catalogVersion++;
+        return Response.message(200, "Service deleted successfully");
+    }
+
+    // ==========================================
+    // BOOKINGS
+    // ==========================================
+
+    private synchronized Response addBooking(JSONObject json, User user) {
+        if (json.optString("name", "").isEmpty()) {
+            return Response.message(400, "Name is required");
+        }
+        ServiceRow service = services.get(json.optString("service_id", ""));
+        if (service == null) {
+            return json.has("service_id") ? Response.message(404, "Service not found")
+                : Response.message(400, "Service ID is required");
+        }
+        if (!"active".equals(service.status)) {
+            return Response.message(400, "Service is not currently active");
+        }
+        if (service.waiting >= service.maxCapacity) {
+            return Response.message(400, "Service queue is full");
+        }
+        Booking booking = new Booking(UUID.randomUUID().toString(), user.id(), service.serviceId, tick());
+        booking.name = json.getString("name");
+        booking.purpose = json.optString("purpose", "");
+        booking.serviceType = service.name;
+        booking.status = "waiting";
+        touch(booking);
+        bookings.put(booking.queueId, booking);
+        bookingsByService.get(service.serviceId).add(booking);
+        recalculatePositions(service.serviceId);
+        return Response.json(201, booking.json());
+    }
+
+    private synchronized Response getBooking(String queueId, User user) {
+        Booking booking = bookings.get(queueId);
+        if (booking == null) {
+            return Response.message(404, "Queue item not found");
+        }
+        if (!user.admin() && booking.userId != user.id()) {
+            return Response.message(403, "Access denied");
+        }
+        return Response.json(200, booking.json());
+    }
+
+    private synchronized Response updateBooking(String queueId, JSONObject json, User user) {
+        Booking booking = bookings.get(queueId);
+        if (booking == null) {
+            return Response.message(404, "Queue item not found");
+        }
+        if (!user.admin() && booking.userId != user.id()) {
+            return Response.message(403, "Access denied");
+        }
+        booking.name = json.optString("name", booking.name);
+        booking.purpose = json.optString("purpose", booking.purpose);
+        booking.serviceType = json.optString("serviceType", booking.serviceType);
+        String oldStatus = booking.status;
+        if (user.admin() && json.has("status")) {
+            booking.status = json.getString("status");
+        }
+        touch(booking);
+        if (!oldStatus.equals(booking.status)) {
+            if (!"waiting".equals(booking.status)) {
+                booking.position = 0;
+            }
+            recalculatePositions(booking.serviceId);
+        }
+        return Response.json(200, booking.json());
+    }
+
+    private synchronized Response deleteBooking(String queueId, User user) {
+        Booking booking = bookings.get(queueId);
+        if (booking == null) {
+            return Response.message(404, "Queue item not found");
+        }
+        if (!user.admin() && booking.userId != user.id()) {
+            return Response.message(403, "Access denied");
+        }
+        bookings.remove(queueId);
+        bookingsByService.getOrDefault(booking.serviceId, new ArrayList<>()).remove(booking);
+        tombstones.addLast(new Tombstone(queueId, booking.userId, booking.serviceId, tick()));
+        while (tombstones.size() > MAX_TOMBSTONES) {
+            tombstonesTrimmedAt = tombstones.removeFirst().modifiedAt();
+        }
+        recalculatePositions(booking.serviceId);
+        return Response.message(200, "Queue item deleted successfully");
+    }
+
+    /**
+     * Bookings filtered by owner, service and status, oldest first. With
+     * deltas on, ?since=<millis> returns only rows modified after it plus
+     * {"queue_id", "deleted": true} tombstones, and an X-Queue-Watermark header.
+     */
+    private synchronized Response listBookings(HttpExchange exchange, Integer userId, String serviceId, String status) {
+        long since = config.deltas() ? sinceParameter(exchange) : -1;
+        if (since >= 0 && since < tombstonesTrimmedAt) {
+            since = -1;
+        }
+
+        StringBuilder out = new StringBuilder(256 + bookings.size() * (160 + config.purposeChars()));
+        out.append('[');
+        Iterable<Booking> scope = serviceId != null ? bookingsByService.getOrDefault(serviceId, List.of()) : bookings.values();
+        for (Booking booking : scope) {
+            if ((userId != null && booking.userId != userId)
+                    || (status != null && !status.equals(booking.status))
+                    || (since >= 0 && booking.modifiedAt <= since)) {
+                continue;
+            }
+            if (out.length() > 1) {
+                out.append(',');
+            }
+            out.append(booking.json());
+        }
+        if (since < 0) {
+            return Response.json(200, out.append(']').toString());
+        }
+
+        for (Tombstone tombstone : tombstones) {
+            if (tombstone.modifiedAt() <= since
+                    || (userId != null && tombstone.userId() != userId)
+                    || (serviceId != null && !serviceId.equals(tombstone.serviceId()))) {
+                continue;
+            }
+            if (out.length() > 1) {
+                out.append(',');
+            }
+            out.append("{\"queue_id\":").append(JSONObject.quote(tombstone.queueId())).append(",\"deleted\":true}");
+        }
+        return new Response(200, out.append(']').toString(), Map.of("X-Queue-Watermark", Long.toString(clock)));
+    }
+
+    private static long sinceParameter(HttpExchange exchange) {
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null) {
+            return -1;
+        }
+        for (String pair : query.split("&")) {
+            if (pair.startsWith("since=")) {
+                try {
+                    return Long.parseLong(URLDecoder.decode(pair.substring("since=".length()), StandardCharsets.UTF_8));
+                } catch (NumberFormatException ex) {
+                    return -1;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private synchronized Response stats() {
+        int waiting = 0;
+        Map<String, Integer> byStatus = new LinkedHashMap<>();
+        Map<String, Integer> byServiceType = new LinkedHashMap<>();
+        Map<String, Integer> byUser = new LinkedHashMap<>();
+        Map<String, Integer> waitingByService = new LinkedHashMap<>();
+        for (Booking booking : bookings.values()) {
+            if ("waiting".equals(booking.status)) {
+                waiting++;
+                waitingByService.merge(booking.serviceId, 1, Integer::sum);
+            }
+            byStatus.merge(booking.status, 1, Integer::sum);
+            byServiceType.merge(booking.serviceType, 1, Integer::sum);
+            byUser.merge(Integer.toString(booking.userId), 1, Integer::sum);
+        }
+        return Response.json(200, new JSONObject()
+            .put("total_items", bookings.size())
+            .put("waiting", waiting)
+            .put("by_status", byStatus)
+            .put("by_service_type", byServiceType)
+            .put("by_user", byUser)
+            .put("waiting_by_service", waitingByService)
+            .toString());
+    }
+
+    // ==========================================
+    // HELPERS
+    // ==========================================
+
+    private static JSONObject body(HttpExchange exchange) throws IOException {
+        String text = JsonStreamReader.readFully(exchange.getRequestBody()).trim();
+        return text.isEmpty() ? new JSONObject() : new JSONObject(text);
+    }
+
+    private static void send(HttpExchange exchange, Response response) throws IOException {
+        byte[] bytes = response.body().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        response.headers().forEach((name, value) -> exchange.getResponseHeaders().set(name, value));
+        boolean empty = response.status() == 304 || exchange.getRequestMethod().equals("HEAD");
+        exchange.sendResponseHeaders(response.status(), empty ? -1 : bytes.length);
+        if (!empty) {
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+        exchange.close();
+    }
+}
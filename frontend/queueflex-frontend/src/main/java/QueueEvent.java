@@ -0,0 +1,48 @@
+// QueueEvent.java
+import org.json.*;
+
+/**
+ * One incremental change pushed over a queue event stream.
+ * The id is the server's event id, used to resume after a reconnect.
+ * RESYNC means the server could not replay the missed events and the
+ * client should reload the full list instead.
+ */
+public record QueueEvent(String id, Type type, QueueItem item) {
+
+    public enum Type {
+        ADDED("added"),
+        POSITION_CHANGED("position_changed"),
+        STATUS_CHANGED("status_changed"),
+        REMOVED("removed"),
+        RESYNC("resync");
+
+        private final String code;
+
+        Type(String code) {
+            this.code = code;
+        }
+
+        public String code() {
+            return code;
+        }
+
+        // null for event names this client does not know about
+        public static Type fromCode(String code) {
+            for (Type type : values()) {
+                if (type.code.equals(code)) {
+                    return type;
+                }
+            }
+            return null;
+        }
+    }
+
+    // data is {"queue": {...}} with the item as /queue/get returns it; empty for resync
+    public static QueueEvent fromSse(String id, Type type, String data) {
+        QueueItem item = null;
+        if (type != Type.RESYNC && data != null && !data.isEmpty()) {
+            item = QueueItem.fromJson(new JSONObject(data).getJSONObject("queue"));
+        }
+        return new QueueEvent(id, type, item);
+    }
+}
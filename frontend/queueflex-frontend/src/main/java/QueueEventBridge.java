@@ -0,0 +1,289 @@
+// QueueEventBridge.java
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.net.InetSocketAddress;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import org.json.*;
+
+/**
+ * Stand-in queue event server for development and testing.
+ * The backend has no push endpoint yet, so this bridge polls the regular
+ * list endpoints on behalf of its subscribers, diffs consecutive snapshots by
+ * queue_id and serves the changes as text/event-stream:
+ *
+ *   /queue/events                  -> /queue/get (the caller's bookings)
+ *   /queue/events?service_id=ID    -> /queue/service/ID
+ *   /admin/queue/events            -> /admin/queue/all
+ *
+ * Status edits are sent as status_changed; any other edit to a booking
+ * (position, name, purpose) as position_changed. Recent events are kept so
+ * clients can resume with Last-Event-ID; otherwise they get a resync event.
+ * Each upstream is polled only while it has subscribers.
+ *
+ * Run with: java QueueEventBridge [port]   (point queueflex.events.url here;
+ * the queue and admin URLs stay on the real services, which the bridge polls)
+ */
+public class QueueEventBridge {
+
+    private static final long POLL_INTERVAL_MS = Long.getLong("queueflex.bridge.pollMs", 1000);
+    private static final long HEARTBEAT_MS = 15000;
+    private static final int MAX_BUFFERED_EVENTS = 1024;
+
+    private record Event(long id, String type, String data) {
+    }
+
+    private final ApiTransport transport;
+    private final ScheduledExecutorService poller = Executors.newScheduledThreadPool(2, runnable -> {
+        Thread thread = new Thread(runnable, "queueflex-bridge-poll");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Map<String, Channel> channels = new ConcurrentHashMap<>();
+
+    public QueueEventBridge(ApiTransport transport) {
+        this.transport = transport;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 4100;
+        QueueEventBridge bridge = new QueueEventBridge(ApiTransport.shared());
+
+        HttpServer server = HttpServer.create(new InetSocketAddress(port), 0);
+        bridge.register(server);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        System.out.println("Queue event bridge listening on port " + port);
+    }
+
+    // Serves the event routes from an existing server; the handlers block, so it needs a growing executor
+    public void register(HttpServer server) {
+        server.createContext("/queue/events", exchange -> handle(exchange, ApiTransport.Service.QUEUE));
+        server.createContext("/admin/queue/events", exchange -> handle(exchange, ApiTransport.Service.ADMIN));
+    }
+
+    public void close() {
+        poller.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange, ApiTransport.Service service) throws IOException {
+        String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+        if (authorization == null) {
+            sendError(exchange, 401, "{\"error\": \"Token is missing!\"}");
+            return;
+        }
+
+        String upstreamPath = upstreamPath(exchange, service);
+        String key = upstreamPath + "|" + authorization;
+        // Subscribing inside compute() keeps the last subscriber leaving from dropping the channel in between
+        Channel channel = channels.compute(key, (k, existing) -> {
+            Channel target = existing != null ? existing : new Channel(service, upstreamPath, authorization);
+            target.subscribe();
+            return target;
+        });
+
+        try {
+            exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+            exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+            exchange.sendResponseHeaders(200, 0);
+            OutputStream out = exchange.getResponseBody();
+            long position = channel.resumePosition(exchange.getRequestHeaders().getFirst("Last-Event-ID"));
+            if (position < 0) {
+                position = channel.lastId();
+                write(out, "retry: 2000\nid: " + position + "\nevent: resync\ndata:\n\n");
+            }
+            while (true) {
+                List<Event> events = channel.awaitAfter(position, HEARTBEAT_MS);
+                if (events.isEmpty()) {
+                    write(out, ": heartbeat\n\n");
+                    continue;
+                }
+                StringBuilder frame = new StringBuilder();
+                for (Event event : events) {
+                    frame.append("id: ").append(event.id())
+                         .append("\nevent: ").append(event.type())
+                         .append("\ndata: ").append(event.data()).append("\n\n");
+                    position = event.id();
+                }
+                write(out, frame.toString());
+            }
+        } catch (IOException ex) {
+            // Subscriber went away
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } finally {
+            channels.computeIfPresent(key, (k, existing) -> existing.unsubscribe() ? null : existing);
+            exchange.close();
+        }
+    }
+
+    private static String upstreamPath(HttpExchange exchange, ApiTransport.Service service) {
+        if (service == ApiTransport.Service.ADMIN) {
+            return "/admin/queue/all";
+        }
+        String query = exchange.getRequestURI().getQuery();
+        if (query != null) {
+            for (String param : query.split("&")) {
+                if (param.startsWith("service_id=")) {
+                    return "/queue/service/" + param.substring("service_id=".length());
+                }
+            }
+        }
+        return "/queue/get";
+    }
+
+    private static void write(OutputStream out, String text) throws IOException {
+        out.write(text.getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    // One upstream list polled while at least one subscriber is connected
+    private final class Channel {
+        private final ApiTransport.Service service;
+        private final String upstreamPath;
+        private final String authorization;
+        private final ArrayDeque<Event> events = new ArrayDeque<>();
+        private Map<String, JSONObject> snapshot;
+        private long lastId;
+        private int subscribers;
+        private ScheduledFuture<?> polling;
+
+        Channel(ApiTransport.Service service, String upstreamPath, String authorization) {
+            this.service = service;
+            this.upstreamPath = upstreamPath;
+            this.authorization = authorization;
+        }
+
+        synchronized void subscribe() {
+            if (subscribers++ == 0) {
+                polling = poller.scheduleWithFixedDelay(this::poll, 0, POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        // true when that was the last subscriber and the channel can be dropped
+        synchronized boolean unsubscribe() {
+            if (--subscribers > 0) {
+                return false;
+            }
+            polling.cancel(false);
+            snapshot = null;
+            return true;
+        }
+
+        synchronized long lastId() {
+            return lastId;
+        }
+
+        // Position to replay from, or -1 when the missed events are no longer buffered
+        synchronized long resumePosition(String lastEventId) {
+            if (lastEventId == null || snapshot == null) {
+                return -1;
+            }
+            long id;
+            try {
+                id = Long.parseLong(lastEventId.trim());
+            } catch (NumberFormatException ex) {
+                return -1;
+            }
+            long oldest = events.isEmpty() ? lastId + 1 : events.peekFirst().id();
+            return id <= lastId && id >= oldest - 1 ? id : -1;
+        }
+
+        synchronized List<Event> awaitAfter(long position, long timeoutMs) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + timeoutMs;
+            while (lastId <= position) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    break;
+                }
+                wait(remaining);
+            }
+            List<Event> pending = new ArrayList<>();
+            for (Event event : events) {
+                if (event.id() > position) {
+                    pending.add(event);
+                }
+            }
+            return pending;
+        }
+
+        private void poll() {
+            Map<String, JSONObject> current = new HashMap<>();
+            try {
+                HttpResponse<String> response = transport.send(service, transport.request(service, upstreamPath, null)
+                    .header("Authorization", authorization)
+                    .GET()
+                    .build());
+                if (response.statusCode() != 200) {
+                    System.err.println("Bridge poll " + upstreamPath + ": HTTP " + response.statusCode());
+                    return;
+                }
+                JsonStreamReader.forEachObject(new StringReader(response.body()),
+                    json -> current.put(json.optString("queue_id", ""), json));
+            } catch (Exception ex) {
+                System.err.println("Bridge poll " + upstreamPath + ": " + ex.getMessage());
+                return;
+            }
+            publishDiff(current);
+        }
+
+        private synchronized void publishDiff(Map<String, JSONObject> current) {
+            if (snapshot == null) {
+                snapshot = current;
+                return;
+            }
+            long before = lastId;
+            for (Map.Entry<String, JSONObject> entry : current.entrySet()) {
+                JSONObject previous = snapshot.get(entry.getKey());
+                JSONObject now = entry.getValue();
+                if (previous == null) {
+                    append("added", now);
+                } else if (!previous.optString("status").equals(now.optString("status"))) {
+                    append("status_changed", now);
+                } else if (!previous.similar(now)) {
+                    append("position_changed", now);
+                }
+            }
+            Set<String> removed = new HashSet<>(snapshot.keySet());
+            removed.removeAll(current.keySet());
+            for (String queueId : removed) {
+                append("removed", snapshot.get(queueId));
+            }
+            snapshot = current;
+            if (lastId != before) {
+                notifyAll();
+            }
+        }
+
+        private void append(String type, JSONObject queue) {
+            events.addLast(new Event(++lastId, type, new JSONObject().put("queue", queue).toString()));
+            if (events.size() > MAX_BUFFERED_EVENTS) {
+                events.removeFirst();
+            }
+        }
+    }
+}
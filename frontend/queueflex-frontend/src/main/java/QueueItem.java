@@ -0,0 +1,65 @@
+// QueueItem.java
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import org.json.*;
+
+/**
+ * One queue booking as returned by /queue/get and /admin/queue/all.
+ * Numeric fields stay primitive, the status is an enum and the service
+ * type is interned, since admin views can hold tens of thousands of these.
+ * statusCode keeps the code as the server sent it (also interned), so a
+ * status this client doesn't know can still be shown.
+ */
+public record QueueItem(
+    String queueId,
+    int userId,
+    String serviceId,
+    String name,
+    String purpose,
+    String serviceType,
+    int position,
+    QueueStatus status,
+    String statusCode,
+    long createdAt
+) {
+
+    public static QueueItem fromJson(JSONObject json) {
+        String statusCode = json.optString("status", "waiting").intern();
+        return new QueueItem(
+            json.optString("queue_id", ""),
+            json.optInt("user_id", 0),
+            json.optString("service_id", "").intern(),
+            json.optString("name", "N/A"),
+            json.optString("purpose", "N/A"),
+            json.optString("serviceType", "General").intern(),
+            json.optInt("position", 0),
+            QueueStatus.fromCode(statusCode),
+            statusCode,
+            parseTimestamp(json.optString("created_at", ""))
+        );
+    }
+
+    // Upper-cased for badges and tickets; an unrecognised status shows the raw code
+    public String statusLabel() {
+        return (status == QueueStatus.UNKNOWN ? statusCode : status.code()).toUpperCase();
+    }
+
+    // Flask serialises timestamps as RFC 1123; ISO-8601 is accepted as well. 0 when absent.
+    static long parseTimestamp(String value) {
+        if (value == null || value.isEmpty()) {
+            return 0L;
+        }
+        try {
+            return ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+        } catch (DateTimeParseException ex) {
+            try {
+                return LocalDateTime.parse(value.replace(' ', 'T')).toInstant(ZoneOffset.UTC).toEpochMilli();
+            } catch (DateTimeParseException ignored) {
+                return 0L;
+            }
+        }
+    }
+}
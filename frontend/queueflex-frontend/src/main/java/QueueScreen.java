@@ -6,17 +6,37 @@ import javafx.scene.layout.*;
 import javafx.scene.paint.Color;
 import javafx.scene.text.*;
 import javafx.stage.Stage;
-import org.json.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 public class QueueScreen {
+    private static final long PUSH_RESYNC_INTERVAL_MS = 60000;
+    private static final String SNAPSHOT_SCOPE = "customer";
+    
     private Stage stage;
     private ApiClient apiClient;
     private VBox servicesBox;
     private VBox myQueuesBox;
+    private KeyedChildren<Service> serviceCards;
+    private KeyedChildren<QueueItem> myQueueCards;
+    private final QueueStore myQueueStore;
+    private final SnapshotCache snapshots = SnapshotCache.fromSystemProperties();
+    // Last rendered data, persisted so the next launch can paint it immediately
+    private List<Service> shownServices = List.of();
+    private List<QueueItem> shownQueue = List.of();
+    private final FrameCoalescer uiUpdates = new FrameCoalescer();
+    private RefreshScheduler autoRefresh;
+    // Position of the user's nearest waiting booking, 0 when nothing is waiting
+    private volatile int nearestPosition;
+    private final ConcurrentLinkedQueue<QueueEvent> pendingEvents = new ConcurrentLinkedQueue<>();
+    private volatile boolean pushLive;
     
     public QueueScreen(Stage stage, ApiClient apiClient) {
         this.stage = stage;
         this.apiClient = apiClient;
+        this.myQueueStore = apiClient.newMyQueueStore();
     }
     
     public void show() {
@@ -57,6 +77,7 @@ public class QueueScreen {
         servicesHeader.getChildren().addAll(servicesTitle, refreshServicesBtn);
         
         servicesBox = new VBox(15);
+        serviceCards = new KeyedChildren<>(servicesBox, Service::serviceId, this::createServiceCard);
         
         servicesContainer.getChildren().addAll(servicesHeader, servicesBox);
         servicesScroll.setContent(servicesContainer);
@@ -87,6 +108,7 @@ public class QueueScreen {
         myQueuesHeader.getChildren().addAll(myQueuesTitle, refreshMyQueuesBtn);
         
         myQueuesBox = new VBox(15);
+        myQueueCards = new KeyedChildren<>(myQueuesBox, QueueItem::queueId, this::createMyQueueCard);
         
         myQueuesContainer.getChildren().addAll(myQueuesHeader, myQueuesBox);
         myQueuesScroll.setContent(myQueuesContainer);
@@ -99,8 +121,67 @@ public class QueueScreen {
         stage.setScene(scene);
         stage.show();
         
+        restoreSnapshot();
         loadServices();
         loadMyQueues();
+        
+        autoRefresh = new RefreshScheduler(stage, scene, this::refreshAll, this::refreshIntervalMillis);
+        autoRefresh.start();
+        autoRefresh.closeOnStop(apiClient.subscribeMyQueue(new QueueSubscription.Listener() {
+            @Override
+            public void onEvent(QueueEvent event) {
+                pendingEvents.add(event);
+                uiUpdates.post("myQueueEvents", QueueScreen.this::applyQueueEvents);
+            }
+            
+            @Override
+            public void onLiveChanged(boolean live) {
+                pushLive = live;
+            }
+        }));
+    }
+    
+    // Paint the last known state at once; the loads started right after revalidate it
+    private void restoreSnapshot() {
+        SnapshotCache.Snapshot snapshot = snapshots.load(SNAPSHOT_SCOPE, apiClient.getAccount());
+        if (snapshot == null) {
+            return;
+        }
+        shownServices = snapshot.services();
+        shownQueue = snapshot.queue();
+        myQueueStore.seed(snapshot.queue());
+        showServices(snapshot.services(), null);
+        showMyQueues(snapshot.queue(), null);
+    }
+    
+    private void saveSnapshot() {
+        String account = apiClient.getAccount();
+        List<Service> services = shownServices;
+        List<QueueItem> queue = shownQueue;
+        ApiTransport.asyncExecutor().execute(() -> snapshots.save(SNAPSHOT_SCOPE, account, services, queue));
+    }
+    
+    private CompletableFuture<?> refreshAll() {
+        return CompletableFuture.allOf(loadServices(), loadMyQueues());
+    }
+    
+    // Poll faster the closer the user's nearest waiting booking is to the front
+    private long refreshIntervalMillis() {
+        if (pushLive) {
+            // Events keep the list current; polling is only a safety net
+            return PUSH_RESYNC_INTERVAL_MS;
+        }
+        int position = nearestPosition;
+        if (position <= 0) {
+            return 30000;
+        }
+        if (position <= 3) {
+            return 3000;
+        }
+        if (position <= 10) {
+            return 10000;
+        }
+        return 20000;
     }
     
     private HBox createNavBar() {
@@ -127,6 +208,7 @@ public class QueueScreen {
                           "-fx-background-radius: 8; -fx-padding: 8 20; " +
                           "-fx-cursor: hand; -fx-font-weight: bold;");
         logoutBtn.setOnAction(e -> {
+            apiClient.logout();
             LoginScreen loginScreen = new LoginScreen(stage);
             loginScreen.show();
         });
@@ -135,36 +217,45 @@ public class QueueScreen {
         return navbar;
     }
     
-    private void loadServices() {
-        servicesBox.getChildren().clear();
-        
-        try {
-            String response = apiClient.getServices();
-            JSONArray servicesArray = new JSONArray(response);
-            
-            if (servicesArray.length() == 0) {
-                Label emptyLabel = new Label("No services available at this time");
-                emptyLabel.setFont(Font.font(14));
-                emptyLabel.setTextFill(Color.web("#999"));
-                emptyLabel.setPadding(new Insets(40));
-                servicesBox.getChildren().add(emptyLabel);
-                return;
-            }
-            
-            for (int i = 0; i < servicesArray.length(); i++) {
-                JSONObject service = servicesArray.getJSONObject(i);
-                VBox serviceCard = createServiceCard(service);
-                servicesBox.getChildren().add(serviceCard);
-            }
-            
-        } catch (Exception ex) {
-            Label errorLabel = new Label("Error loading services: " + ex.getMessage());
+    private CompletableFuture<List<Service>> loadServices() {
+        ClientEvents.ScreenRefresh refresh = ClientEvents.ScreenRefresh.start();
+        CompletableFuture<List<Service>> request = apiClient.getServicesAsync();
+        request.whenComplete((services, error) -> {
+            int count = services == null ? 0 : services.size();
+            refresh.finish("QueueScreen", "services", count, error);
+            uiUpdates.post("services", () ->
+                ClientEvents.render("QueueScreen", "services", count, () -> showServices(services, error)));
+        });
+        return request;
+    }
+    
+    private void showServices(List<Service> services, Throwable error) {
+        if (error != null) {
+            Label errorLabel = new Label("Error loading services: " + ApiClient.unwrap(error).getMessage());
             errorLabel.setTextFill(Color.web("#f44336"));
-            servicesBox.getChildren().add(errorLabel);
+            serviceCards.showMessage(errorLabel);
+            return;
+        }
+        
+        // Saved even when empty, so deleted entries drop out of the snapshot too
+        if (!services.equals(shownServices)) {
+            shownServices = services;
+            saveSnapshot();
+        }
+        
+        if (services.isEmpty()) {
+            Label emptyLabel = new Label("No services available at this time");
+            emptyLabel.setFont(Font.font(14));
+            emptyLabel.setTextFill(Color.web("#999"));
+            emptyLabel.setPadding(new Insets(40));
+            serviceCards.showMessage(emptyLabel);
+            return;
         }
+        
+        serviceCards.reconcile(services);
     }
     
-    private VBox createServiceCard(JSONObject service) {
+    private VBox createServiceCard(Service service) {
         VBox card = new VBox(15);
         card.setPadding(new Insets(20));
         card.setStyle("-fx-background-color: white; -fx-background-radius: 12; " +
@@ -174,14 +265,14 @@ public class QueueScreen {
         HBox header = new HBox(15);
         header.setAlignment(Pos.CENTER_LEFT);
         
-        Label nameLabel = new Label(service.optString("name", "Unknown Service"));
+        Label nameLabel = new Label(service.name());
         nameLabel.setFont(Font.font("System", FontWeight.BOLD, 20));
         nameLabel.setTextFill(Color.web("#2c3e50"));
         
         Region spacer = new Region();
         HBox.setHgrow(spacer, Priority.ALWAYS);
         
-        Label categoryLabel = new Label(service.optString("category", "General"));
+        Label categoryLabel = new Label(service.category());
         categoryLabel.setPadding(new Insets(5, 12, 5, 12));
         categoryLabel.setStyle("-fx-background-radius: 12; -fx-font-size: 11; " +
                               "-fx-font-weight: bold; " +
@@ -190,7 +281,7 @@ public class QueueScreen {
         header.getChildren().addAll(nameLabel, spacer, categoryLabel);
         
         // Description
-        Label descLabel = new Label(service.optString("description", ""));
+        Label descLabel = new Label(service.description());
         descLabel.setFont(Font.font(13));
         descLabel.setTextFill(Color.web("#666"));
         descLabel.setWrapText(true);
@@ -200,9 +291,9 @@ public class QueueScreen {
         details.setHgap(30);
         details.setVgap(8);
         
-        int maxCapacity = service.optInt("max_capacity", 50);
-        int estimatedTime = service.optInt("estimated_time_per_person", 15);
-        int currentQueue = service.optInt("current_queue_count", 0);
+        int maxCapacity = service.maxCapacity();
+        int estimatedTime = service.estimatedTimePerPerson();
+        int currentQueue = service.currentQueueCount();
         
         details.add(createDetailLabel("⏱️ Est. Time:", estimatedTime + " min/person"), 0, 0);
         details.add(createDetailLabel("👥 Capacity:", currentQueue + "/" + maxCapacity), 1, 0);
@@ -251,10 +342,10 @@ public class QueueScreen {
         return box;
     }
     
-    private void showBookingDialog(JSONObject service) {
+    private void showBookingDialog(Service service) {
         Dialog<ButtonType> dialog = new Dialog<>();
         dialog.setTitle("Book Queue");
-        dialog.setHeaderText("Book a queue for: " + service.optString("name"));
+        dialog.setHeaderText("Book a queue for: " + service.name());
         
         VBox content = new VBox(15);
         content.setPadding(new Insets(20));
@@ -282,7 +373,7 @@ public class QueueScreen {
             if (response == ButtonType.OK) {
                 String name = nameField.getText();
                 String purpose = purposeField.getText();
-                String serviceId = service.optString("service_id");
+                String serviceId = service.serviceId();
                 
                 if (name.isEmpty()) {
                     Alert alert = new Alert(Alert.AlertType.ERROR);
@@ -292,58 +383,94 @@ public class QueueScreen {
                     return;
                 }
                 
-                try {
-                    apiClient.addToQueue(name, purpose, serviceId);
-                    
-                    Alert alert = new Alert(Alert.AlertType.INFORMATION);
-                    alert.setTitle("Success");
-                    alert.setHeaderText("Queue Booked!");
-                    alert.setContentText("You have successfully booked a queue for " + service.optString("name"));
-                    alert.showAndWait();
-                    
-                    loadServices();
-                    loadMyQueues();
-                    
-                } catch (Exception ex) {
-                    Alert alert = new Alert(Alert.AlertType.ERROR);
-                    alert.setTitle("Error");
-                    alert.setContentText("Error: " + ex.getMessage());
-                    alert.showAndWait();
-                }
+                apiClient.addToQueueAsync(name, purpose, serviceId).whenComplete((result, error) -> {
+                    javafx.application.Platform.runLater(() -> {
+                        if (error != null) {
+                            Alert alert = new Alert(Alert.AlertType.ERROR);
+                            alert.setTitle("Error");
+                            alert.setContentText("Error: " + ApiClient.unwrap(error).getMessage());
+                            alert.showAndWait();
+                            return;
+                        }
+                        
+                        Alert alert = new Alert(Alert.AlertType.INFORMATION);
+                        alert.setTitle("Success");
+                        alert.setHeaderText("Queue Booked!");
+                        alert.setContentText("You have successfully booked a queue for " + service.name());
+                        alert.showAndWait();
+                        
+                        loadServices();
+                        loadMyQueues();
+                    });
+                });
             }
         });
     }
     
-    private void loadMyQueues() {
-        myQueuesBox.getChildren().clear();
-        
-        try {
-            String response = apiClient.getQueue();
-            JSONArray queueArray = new JSONArray(response);
-            
-            if (queueArray.length() == 0) {
-                Label emptyLabel = new Label("You have no queue bookings");
-                emptyLabel.setFont(Font.font(14));
-                emptyLabel.setTextFill(Color.web("#999"));
-                emptyLabel.setPadding(new Insets(40));
-                myQueuesBox.getChildren().add(emptyLabel);
-                return;
-            }
-            
-            for (int i = 0; i < queueArray.length(); i++) {
-                JSONObject item = queueArray.getJSONObject(i);
-                VBox queueCard = createMyQueueCard(item);
-                myQueuesBox.getChildren().add(queueCard);
-            }
-            
-        } catch (Exception ex) {
-            Label errorLabel = new Label("Error loading queues: " + ex.getMessage());
+    private CompletableFuture<QueueStore.Change> loadMyQueues() {
+        // Only bookings changed since the last sync come over the wire
+        ClientEvents.ScreenRefresh refresh = ClientEvents.ScreenRefresh.start();
+        CompletableFuture<QueueStore.Change> request = myQueueStore.sync();
+        request.whenComplete((change, error) -> {
+            refresh.finish("QueueScreen", "myQueues", myQueueStore.size(), error);
+            uiUpdates.post("myQueues", () -> {
+                List<QueueItem> items = error == null ? myQueueStore.items() : null;
+                ClientEvents.render("QueueScreen", "myQueues", items == null ? 0 : items.size(),
+                    () -> showMyQueues(items, error));
+            });
+        });
+        return request;
+    }
+    
+    private void showMyQueues(List<QueueItem> items, Throwable error) {
+        if (error != null) {
+            Label errorLabel = new Label("Error loading queues: " + ApiClient.unwrap(error).getMessage());
             errorLabel.setTextFill(Color.web("#f44336"));
-            myQueuesBox.getChildren().add(errorLabel);
+            myQueueCards.showMessage(errorLabel);
+            return;
         }
+        
+        // 0 once nothing is waiting, so polling drops back to the slow rate
+        nearestPosition = items.stream()
+            .filter(item -> item.status() == QueueStatus.WAITING)
+            .mapToInt(QueueItem::position)
+            .min()
+            .orElse(0);
+        
+        if (!items.equals(shownQueue)) {
+            shownQueue = items;
+            saveSnapshot();
+        }
+        
+        if (items.isEmpty()) {
+            Label emptyLabel = new Label("You have no queue bookings");
+            emptyLabel.setFont(Font.font(14));
+            emptyLabel.setTextFill(Color.web("#999"));
+            emptyLabel.setPadding(new Insets(40));
+            myQueueCards.showMessage(emptyLabel);
+            return;
+        }
+        
+        myQueueCards.reconcile(items);
     }
     
-    private VBox createMyQueueCard(JSONObject item) {
+    private void applyQueueEvents() {
+        List<QueueEvent> events = new ArrayList<>();
+        for (QueueEvent event; (event = pendingEvents.poll()) != null; ) {
+            events.add(event);
+        }
+        if (events.stream().anyMatch(event -> event.type() == QueueEvent.Type.RESYNC)) {
+            loadMyQueues();
+            return;
+        }
+        if (!events.isEmpty()) {
+            myQueueStore.apply(events);
+            ClientEvents.render("QueueScreen", "myQueueEvents", events.size(),
+                () -> showMyQueues(myQueueStore.items(), null));
+        }
+    }
+    
+    private VBox createMyQueueCard(QueueItem item) {
         VBox card = new VBox(15);
         card.setPadding(new Insets(20));
         card.setStyle("-fx-background-color: white; -fx-background-radius: 10; " +
@@ -352,15 +479,15 @@ public class QueueScreen {
         HBox header = new HBox(15);
         header.setAlignment(Pos.CENTER_LEFT);
         
-        Label serviceLabel = new Label(item.optString("serviceType", "General"));
+        Label serviceLabel = new Label(item.serviceType());
         serviceLabel.setFont(Font.font("System", FontWeight.BOLD, 18));
         serviceLabel.setTextFill(Color.web("#2c3e50"));
         
         Region spacer = new Region();
         HBox.setHgrow(spacer, Priority.ALWAYS);
         
-        String status = item.optString("status", "waiting");
-        Label statusLabel = new Label(status.toUpperCase());
+        QueueStatus status = item.status();
+        Label statusLabel = new Label(item.statusLabel());
         statusLabel.setPadding(new Insets(5, 12, 5, 12));
         statusLabel.setStyle("-fx-background-radius: 12; -fx-font-size: 11; " +
                             "-fx-font-weight: bold; " + getStatusStyle(status));
@@ -371,14 +498,14 @@ public class QueueScreen {
         details.setHgap(25);
         details.setVgap(10);
         
-        details.add(createDetailLabel("👤 Name:", item.optString("name", "N/A")), 0, 0);
-        details.add(createDetailLabel("📍 Position:", "#" + item.optInt("position", 0)), 1, 0);
-        details.add(createDetailLabel("📝 Purpose:", item.optString("purpose", "N/A")), 0, 1, 2, 1);
+        details.add(createDetailLabel("👤 Name:", item.name()), 0, 0);
+        details.add(createDetailLabel("📍 Position:", "#" + item.position()), 1, 0);
+        details.add(createDetailLabel("📝 Purpose:", item.purpose()), 0, 1, 2, 1);
         
         HBox actions = new HBox(10);
         actions.setAlignment(Pos.CENTER_RIGHT);
         
-        String queueId = item.optString("queue_id", "");
+        String queueId = item.queueId();
         
         Button deleteBtn = new Button("Cancel Booking");
         deleteBtn.setStyle("-fx-background-color: #f44336; -fx-text-fill: white; " +
@@ -393,15 +520,15 @@ public class QueueScreen {
         return card;
     }
     
-    private String getStatusStyle(String status) {
-        switch (status.toLowerCase()) {
-            case "waiting":
+    private String getStatusStyle(QueueStatus status) {
+        switch (status) {
+            case WAITING:
                 return "-fx-background-color: #fff3cd; -fx-text-fill: #856404;";
-            case "in-progress":
+            case IN_PROGRESS:
                 return "-fx-background-color: #cfe2ff; -fx-text-fill: #084298;";
-            case "completed":
+            case COMPLETED:
                 return "-fx-background-color: #d1e7dd; -fx-text-fill: #0f5132;";
-            case "cancelled":
+            case CANCELLED:
                 return "-fx-background-color: #f8d7da; -fx-text-fill: #842029;";
             default:
                 return "-fx-background-color: #e2e3e5; -fx-text-fill: #41464b;";
@@ -416,24 +543,26 @@ public class QueueScreen {
         
         confirm.showAndWait().ifPresent(response -> {
             if (response == ButtonType.OK) {
-                try {
-                    apiClient.deleteQueue(queueId);
-                    
-                    Alert alert = new Alert(Alert.AlertType.INFORMATION);
-                    alert.setTitle("Success");
-                    alert.setHeaderText("Booking Cancelled");
-                    alert.setContentText("Your queue booking has been cancelled successfully!");
-                    alert.showAndWait();
-                    
-                    loadServices();
-                    loadMyQueues();
-                    
-                } catch (Exception ex) {
-                    Alert alert = new Alert(Alert.AlertType.ERROR);
-                    alert.setTitle("Error");
-                    alert.setContentText("Error: " + ex.getMessage());
-                    alert.showAndWait();
-                }
+                apiClient.deleteQueueAsync(queueId).whenComplete((result, error) -> {
+                    javafx.application.Platform.runLater(() -> {
+                        if (error != null) {
+                            Alert alert = new Alert(Alert.AlertType.ERROR);
+                            alert.setTitle("Error");
+                            alert.setContentText("Error: " + ApiClient.unwrap(error).getMessage());
+                            alert.showAndWait();
+                            return;
+                        }
+                        
+                        Alert alert = new Alert(Alert.AlertType.INFORMATION);
+                        alert.setTitle("Success");
+                        alert.setHeaderText("Booking Cancelled");
+                        alert.setContentText("Your queue booking has been cancelled successfully!");
+                        alert.showAndWait();
+                        
+                        loadServices();
+                        loadMyQueues();
+                    });
+                });
             }
         });
     }
@@ -0,0 +1,33 @@
+// QueueStats.java
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.json.*;
+
+/**
+ * Aggregated queue analytics from /admin/queue/stats.
+ */
+public record QueueStats(int totalItems, int waiting, List<ServiceTypeCount> byServiceType) {
+
+    public record ServiceTypeCount(String serviceType, int count) {
+    }
+
+    public static QueueStats fromJson(JSONObject json) {
+        List<ServiceTypeCount> byServiceType = new ArrayList<>();
+        JSONObject byService = json.optJSONObject("by_service_type");
+        if (byService != null) {
+            for (String key : byService.keySet()) {
+                byServiceType.add(new ServiceTypeCount(key.intern(), byService.optInt(key, 0)));
+            }
+        }
+        return new QueueStats(
+            json.optInt("total_items", 0),
+            json.optInt("waiting", 0),
+            Collections.unmodifiableList(byServiceType)
+        );
+    }
+
+    public int notWaiting() {
+        return totalItems - waiting;
+    }
+}
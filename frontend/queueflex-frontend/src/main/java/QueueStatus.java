@@ -0,0 +1,35 @@
+// QueueStatus.java
+
+/**
+ * Lifecycle states of a queue booking, keyed by the code the backend sends.
+ */
+public enum QueueStatus {
+    WAITING("waiting"),
+    IN_PROGRESS("in-progress"),
+    COMPLETED("completed"),
+    CANCELLED("cancelled"),
+    UNKNOWN("unknown");
+
+    private final String code;
+
+    QueueStatus(String code) {
+        this.code = code;
+    }
+
+    public String code() {
+        return code;
+    }
+
+    // Missing status defaults to waiting, matching the queue_items column default
+    public static QueueStatus fromCode(String code) {
+        if (code == null || code.isEmpty()) {
+            return WAITING;
+        }
+        for (QueueStatus status : values()) {
+            if (status.code.equalsIgnoreCase(code)) {
+                return status;
+            }
+        }
+        return UNKNOWN;
+    }
+}
@@ -0,0 +1,213 @@
+// QueueStore.java
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Client-side replica of a queue listing, kept current with delta fetches.
+ * Each sync asks only for bookings changed since the last X-Queue-Watermark
+ * the server sent. A server that supports this answers with just the changed
+ * rows (deletions flagged "deleted": true) and a new watermark; one that
+ * sends no watermark gets a full fetch every time, diffed against the replica.
+ * Either way listeners only hear about bookings that actually changed.
+ *
+ * Bookings are also indexed per service, ordered by queue position.
+ */
+public class QueueStore {
+
+    // One fetch result; full means the rows are a complete snapshot rather than a delta
+    public record Delta(List<QueueItem> changed, List<String> removed, boolean full, String watermark) {
+    }
+
+    public record Change(List<QueueItem> added, List<QueueItem> updated, List<QueueItem> removed) {
+        public boolean isEmpty() {
+            return added.isEmpty() && updated.isEmpty() && removed.isEmpty();
+        }
+    }
+
+    private static final Comparator<QueueItem> QUEUE_ORDER = Comparator
+        .comparingInt(QueueItem::position)
+        .thenComparingLong(QueueItem::createdAt)
+        .thenComparing(QueueItem::queueId);
+
+    // since (null without a server watermark) -> delta
+    private final Function<String, CompletableFuture<Delta>> fetcher;
+    private final Map<String, QueueItem> byId = new LinkedHashMap<>();
+    private final Map<String, NavigableSet<QueueItem>> byService = new HashMap<>();
+    private final List<Consumer<Change>> listeners = new CopyOnWriteArrayList<>();
+    private String watermark;
+    private boolean synced;
+    private CompletableFuture<Change> syncing;
+
+    public QueueStore(Function<String, CompletableFuture<Delta>> fetcher) {
+        this.fetcher = fetcher;
+    }
+
+    public void addListener(Consumer<Change> listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Consumer<Change> listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Fetch and merge whatever changed since the last sync. Concurrent callers
+     * share one fetch; cancelling the returned future only detaches the caller.
+     */
+    public CompletableFuture<Change> sync() {
+        synchronized (this) {
+            if (syncing == null || syncing.isDone()) {
+                syncing = fetcher.apply(watermark).thenApply(delta -> {
+                    Change change = merge(delta);
+                    notifyListeners(change);
+                    return change;
+                });
+            }
+            return syncing.copy();
+        }
+    }
+
+    // Pre-populate from a persisted snapshot; the next sync still fetches the full list
+    public void seed(List<QueueItem> items) {
+        Change change;
+        synchronized (this) {
+            change = mergeSnapshot(items);
+        }
+        notifyListeners(change);
+    }
+
+    // Fold pushed queue events into the replica (see QueueSubscription); resync events are ignored
+    public Change apply(List<QueueEvent> events) {
+        List<QueueItem> changed = new ArrayList<>();
+        List<String> removed = new ArrayList<>();
+        for (QueueEvent event : events) {
+            if (event.item() == null) {
+                continue;
+            }
+            if (event.type() == QueueEvent.Type.REMOVED) {
+                removed.add(event.item().queueId());
+            } else {
+                changed.add(event.item());
+            }
+        }
+        Change change;
+        synchronized (this) {
+            change = mergeDelta(changed, removed);
+        }
+        notifyListeners(change);
+        return change;
+    }
+
+    public synchronized boolean isSynced() {
+        return synced;
+    }
+
+    public synchronized List<QueueItem> items() {
+        return List.copyOf(byId.values());
+    }
+
+    // Bookings for one service in queue order
+    public synchronized List<QueueItem> forService(String serviceId) {
+        NavigableSet<QueueItem> items = byService.get(serviceId);
+        return items == null ? List.of() : List.copyOf(items);
+    }
+
+    public synchronized int size() {
+        return byId.size();
+    }
+
+    private synchronized Change merge(Delta delta) {
+        Change change = delta.full() ? mergeSnapshot(delta.changed()) : mergeDelta(delta.changed(), delta.removed());
+        // Only the server's own cursor is safe; a made-up one would skip edits to older bookings
+        watermark = delta.watermark();
+        synced = true;
+        return change;
+    }
+
+    private Change mergeDelta(List<QueueItem> changed, List<String> removedIds) {
+        List<QueueItem> added = new ArrayList<>();
+        List<QueueItem> updated = new ArrayList<>();
+        List<QueueItem> removed = new ArrayList<>();
+        for (QueueItem item : changed) {
+            QueueItem previous = put(item);
+            if (previous == null) {
+                added.add(item);
+            } else if (!previous.equals(item)) {
+                updated.add(item);
+            }
+        }
+        for (String queueId : removedIds) {
+            QueueItem previous = remove(queueId);
+            if (previous != null) {
+                removed.add(previous);
+            }
+        }
+        return new Change(added, updated, removed);
+    }
+
+    private Change mergeSnapshot(List<QueueItem> snapshot) {
+        Map<String, QueueItem> previous = new LinkedHashMap<>(byId);
+        List<QueueItem> added = new ArrayList<>();
+        List<QueueItem> updated = new ArrayList<>();
+
+        // Rebuild in snapshot order so items() follows the server's ordering
+        byId.clear();
+        byService.clear();
+        for (QueueItem item : snapshot) {
+            QueueItem old = previous.remove(item.queueId());
+            put(item);
+            if (old == null) {
+                added.add(item);
+            } else if (!old.equals(item)) {
+                updated.add(item);
+            }
+        }
+        return new Change(added, updated, new ArrayList<>(previous.values()));
+    }
+
+    private QueueItem put(QueueItem item) {
+        QueueItem previous = byId.put(item.queueId(), item);
+        if (previous != null) {
+            unindex(previous);
+        }
+        byService.computeIfAbsent(item.serviceId(), key -> new TreeSet<>(QUEUE_ORDER)).add(item);
+        return previous;
+    }
+
+    private QueueItem remove(String queueId) {
+        QueueItem previous = byId.remove(queueId);
+        if (previous != null) {
+            unindex(previous);
+        }
+        return previous;
+    }
+
+    private void unindex(QueueItem item) {
+        NavigableSet<QueueItem> items = byService.get(item.serviceId());
+        if (items != null) {
+            items.remove(item);
+            if (items.isEmpty()) {
+                byService.remove(item.serviceId());
+            }
+        }
+    }
+
+    private void notifyListeners(Change change) {
+        if (change.isEmpty()) {
+            return;
+        }
+        for (Consumer<Change> listener : listeners) {
+            listener.accept(change);
+        }
+    }
+}
@@ -0,0 +1,229 @@
+// QueueSubscription.java
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Server-sent event subscription to a queue event stream.
+ * Runs on its own daemon thread, reconnects automatically with backoff and
+ * resumes from the last seen event id via Last-Event-ID. A connection that
+ * stays silent longer than the heartbeat timeout is treated as dead.
+ *
+ * Listener callbacks run on the subscription thread.
+ */
+public class QueueSubscription implements AutoCloseable {
+
+    public interface Listener {
+        void onEvent(QueueEvent event);
+
+        // true once the stream is open, false whenever it drops
+        default void onLiveChanged(boolean live) {
+        }
+    }
+
+    private static final long INITIAL_RETRY_MS = 1000;
+    private static final long MAX_RETRY_MS = Long.getLong("queueflex.events.maxRetryMs", 30000);
+    private static final long HEARTBEAT_TIMEOUT_MS = Long.getLong("queueflex.events.heartbeatTimeoutMs", 45000);
+
+    private static final AtomicInteger THREAD_IDS = new AtomicInteger();
+    private static final ScheduledExecutorService WATCHDOG = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "queueflex-events-watchdog");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final ApiTransport transport;
+    private final ApiTransport.Service service;
+    private final String path;
+    private final Supplier<String> token;
+    private final Listener listener;
+    private final Thread thread;
+
+    private volatile boolean closed;
+    private volatile boolean live;
+    private volatile InputStream body;
+    private volatile long lastReceived;
+    private String lastEventId;
+    private long retryMillis = INITIAL_RETRY_MS;
+
+    QueueSubscription(ApiTransport transport, ApiTransport.Service service, String path,
+                      Supplier<String> token, Listener listener) {
+        this.transport = transport;
+        this.service = service;
+        this.path = path;
+        this.token = token;
+        this.listener = listener;
+        this.thread = new Thread(this::run, "queueflex-events-" + THREAD_IDS.incrementAndGet());
+        this.thread.setDaemon(true);
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    public boolean isLive() {
+        return live;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        thread.interrupt();
+        closeBody();
+    }
+
+    private void run() {
+        long backoff = INITIAL_RETRY_MS;
+        while (!closed) {
+            try {
+                if (connect()) {
+                    backoff = INITIAL_RETRY_MS;
+                }
+            } catch (IOException ex) {
+                // Dropped connection or watchdog timeout; reconnect below
+            } catch (InterruptedException ex) {
+                break;
+            } catch (Exception ex) {
+                System.err.println("Queue event stream " + path + ": " + ex.getMessage());
+            } finally {
+                setLive(false);
+            }
+            if (closed) {
+                break;
+            }
+            try {
+                Thread.sleep(Math.max(backoff, retryMillis));
+            } catch (InterruptedException ex) {
+                break;
+            }
+            backoff = Math.min(MAX_RETRY_MS, backoff * 2);
+        }
+    }
+
+    // Returns true if the stream was opened successfully before it ended
+    private boolean connect() throws Exception {
+        HttpRequest.Builder builder = transport.eventsRequest(service, path, token.get())
+            .header("Accept", "text/event-stream")
+            .header("Cache-Control", "no-cache")
+            .GET();
+        if (lastEventId != null) {
+            builder.header("Last-Event-ID", lastEventId);
+        }
+
+        HttpResponse<InputStream> response = transport.sendStreaming(service, builder.build());
+        body = response.body();
+        if (response.statusCode() != 200) {
+            String error = JsonStreamReader.readFully(response.body());
+            throw new IOException("HTTP Error " + response.statusCode() + ": " + error);
+        }
+
+        lastReceived = System.currentTimeMillis();
+        ScheduledFuture<?> watchdog = WATCHDOG.scheduleWithFixedDelay(this::checkHeartbeat,
+            HEARTBEAT_TIMEOUT_MS, HEARTBEAT_TIMEOUT_MS / 3, TimeUnit.MILLISECONDS);
+        setLive(true);
+        try {
+            readEvents(new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8)));
+        } finally {
+            watchdog.cancel(false);
+            closeBody();
+        }
+        return true;
+    }
+
+    // text/event-stream framing: fields until a blank line, then dispatch
+    private void readEvents(BufferedReader reader) throws IOException {
+        String eventId = null;
+        String eventName = "message";
+        StringBuilder data = new StringBuilder();
+
+        String line;
+        while (!closed && (line = reader.readLine()) != null) {
+            lastReceived = System.currentTimeMillis();
+            if (line.isEmpty()) {
+                if (eventId != null) {
+                    lastEventId = eventId;
+                }
+                dispatch(eventId, eventName, data.toString());
+                eventId = null;
+                eventName = "message";
+                data.setLength(0);
+                continue;
+            }
+            if (line.startsWith(":")) {
+                continue;
+            }
+
+            int colon = line.indexOf(':');
+            String field = colon < 0 ? line : line.substring(0, colon);
+            String value = colon < 0 ? "" : line.substring(colon + 1);
+            if (value.startsWith(" ")) {
+                value = value.substring(1);
+            }
+            switch (field) {
+                case "id" -> eventId = value;
+                case "event" -> eventName = value;
+                case "data" -> {
+                    if (data.length() > 0) {
+                        data.append('\n');
+                    }
+                    data.append(value);
+                }
+                case "retry" -> {
+                    try {
+                        retryMillis = Long.parseLong(value);
+                    } catch (NumberFormatException ignored) {
+                        // Malformed retry hints are ignored per the SSE spec
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+    }
+
+    private void dispatch(String eventId, String eventName, String data) {
+        QueueEvent.Type type = QueueEvent.Type.fromCode(eventName);
+        if (type == null) {
+            return;
+        }
+        try {
+            listener.onEvent(QueueEvent.fromSse(eventId, type, data));
+        } catch (RuntimeException ex) {
+            System.err.println("Queue event listener failed: " + ex.getMessage());
+        }
+    }
+
+    private void checkHeartbeat() {
+        if (System.currentTimeMillis() - lastReceived > HEARTBEAT_TIMEOUT_MS) {
+            closeBody();
+        }
+    }
+
+    private void closeBody() {
+        InputStream stream = body;
+        if (stream != null) {
+            try {
+                stream.close();
+            } catch (IOException ignored) {
+                // Closing is only used to unblock the reader
+            }
+        }
+    }
+
+    private void setLive(boolean value) {
+        if (live != value) {
+            live = value;
+            listener.onLiveChanged(value);
+        }
+    }
+}
@@ -13,16 +13,15 @@ public class QueueTicketGenerator {
     
     private static final String AUTH_URL = "http://localhost:3000";
     private static final String QUEUE_URL = "http://localhost:4000";
-    private static String token;
-    private static boolean isAdmin;
+    private static final SessionManager session = new SessionManager("tickets", QueueTicketGenerator::authenticate);
     
     public static void main(String[] args) {
         Scanner scanner = new Scanner(System.in);
         
         printBanner();
         
-        // Login first
-        if (!login(scanner)) {
+        // Reuse a saved session if it is still valid, otherwise log in
+        if (session.restore() == null && !login(scanner)) {
             System.out.println("\n❌ Login failed. Exiting...");
             return;
         }
@@ -92,37 +91,41 @@ public class QueueTicketGenerator {
         String password = scanner.nextLine().trim();
         
         try {
-            URL url = new URL(AUTH_URL + "/login");
-            HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-            conn.setRequestMethod("POST");
-            conn.setRequestProperty("Content-Type", "application/json");
-            conn.setDoOutput(true);
-            
-            JSONObject json = new JSONObject();
-            json.put("email", email);
-            json.put("password", password);
-            
-            try (OutputStream os = conn.getOutputStream()) {
-                os.write(json.toString().getBytes());
-                os.flush();
-            }
-            
-            String response = readResponse(conn);
-            JSONObject jsonResponse = new JSONObject(response);
-            
-            if (jsonResponse.has("token")) {
-                token = jsonResponse.getString("token");
-                isAdmin = jsonResponse.getBoolean("admin");
-                return true;
-            }
-            return false;
-            
+            return session.login(email, password) != null;
         } catch (Exception e) {
             System.out.println("Error: " + e.getMessage());
             return false;
         }
     }
     
+    // Password login; also used by the session manager to renew the token in the background
+    private static SessionManager.Session authenticate(String email, String password) throws Exception {
+        URL url = new URL(AUTH_URL + "/login");
+        HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+        conn.setRequestMethod("POST");
+        conn.setRequestProperty("Content-Type", "application/json");
+        conn.setDoOutput(true);
+        
+        JSONObject json = new JSONObject();
+        json.put("email", email);
+        json.put("password", password);
+        
+        try (OutputStream os = conn.getOutputStream()) {
+            os.write(json.toString().getBytes());
+            os.flush();
+        }
+        
+        String response = readResponse(conn);
+        JSONObject jsonResponse = new JSONObject(response);
+        
+        if (jsonResponse.has("token")) {
+            String token = jsonResponse.getString("token");
+            return new SessionManager.Session(email, token, jsonResponse.getBoolean("admin"),
+                SessionManager.expiresAt(token));
+        }
+        return null;
+    }
+    
     private static void printMyQueueTickets(Scanner scanner) {
         System.out.println("\n📋 YOUR QUEUE TICKETS");
         System.out.println("═════════════════════════════════════════════════════");
@@ -137,7 +140,7 @@ public class QueueTicketGenerator {
             }
             
             for (int i = 0; i < queues.length(); i++) {
-                JSONObject queue = queues.getJSONObject(i);
+                QueueItem queue = QueueItem.fromJson(queues.getJSONObject(i));
                 printTicket(queue);
                 System.out.println();
             }
@@ -157,7 +160,7 @@ public class QueueTicketGenerator {
         
         try {
             String response = getQueueById(queueId);
-            JSONObject queue = new JSONObject(response);
+            QueueItem queue = QueueItem.fromJson(new JSONObject(response));
             
             System.out.println("\n═════════════════════════════════════════════════════");
             printTicket(queue);
@@ -168,7 +171,8 @@ public class QueueTicketGenerator {
     }
     
     private static void printAllTickets(Scanner scanner) {
-        if (!isAdmin) {
+        SessionManager.Session current = session.current();
+        if (current == null || !current.admin()) {
             System.out.println("\n❌ Access Denied: Admin privileges required.");
             return;
         }
@@ -186,7 +190,7 @@ public class QueueTicketGenerator {
             }
             
             for (int i = 0; i < queues.length(); i++) {
-                JSONObject queue = queues.getJSONObject(i);
+                QueueItem queue = QueueItem.fromJson(queues.getJSONObject(i));
                 printTicket(queue);
                 System.out.println();
             }
@@ -206,7 +210,7 @@ public class QueueTicketGenerator {
         
         try {
             String response = getQueueById(queueId);
-            JSONObject queue = new JSONObject(response);
+            QueueItem queue = QueueItem.fromJson(new JSONObject(response));
             
             String filename = "ticket_" + queueId.substring(0, 8) + ".txt";
             
@@ -235,7 +239,7 @@ public class QueueTicketGenerator {
         }
     }
     
-    private static void printTicket(JSONObject queue) {
+    private static void printTicket(QueueItem queue) {
         System.out.println("╔════════════════════════════════════════════════════╗");
         System.out.println("║                                                    ║");
         System.out.println("║              🎫  QUEUE BOOKING TICKET  🎫          ║");
@@ -251,14 +255,15 @@ public class QueueTicketGenerator {
         System.out.println("╚════════════════════════════════════════════════════╝");
     }
     
-    private static void printTicketContent(JSONObject queue) {
-        String queueId = queue.optString("queue_id", "N/A");
-        String name = queue.optString("name", "N/A");
-        String serviceType = queue.optString("serviceType", "General");
-        String purpose = queue.optString("purpose", "N/A");
-        int position = queue.optInt("position", 0);
-        String status = queue.optString("status", "waiting");
-        int userId = queue.optInt("user_id", 0);
+    // Package-private, like writeTicketContent, for the benchmarks' BenchHooks
+    static void printTicketContent(QueueItem queue) {
+        String queueId = queue.queueId().isEmpty() ? "N/A" : queue.queueId();
+        String name = queue.name();
+        String serviceType = queue.serviceType();
+        String purpose = queue.purpose();
+        int position = queue.position();
+        QueueStatus status = queue.status();
+        int userId = queue.userId();
         
         String timestamp = new SimpleDateFormat("dd MMM yyyy, hh:mm a").format(new Date());
         
@@ -275,7 +280,7 @@ public class QueueTicketGenerator {
         System.out.println("  │  QUEUE INFORMATION                           │");
         System.out.println("  ├──────────────────────────────────────────────┤");
         System.out.printf("  │  Queue Position: #%-26d │%n", position);
-        System.out.printf("  │  Status: %-35s │%n", getStatusDisplay(status));
+        System.out.printf("  │  Status: %-35s │%n", getStatusDisplay(queue));
         System.out.printf("  │  User ID: #%-33d │%n", userId);
         System.out.println("  └──────────────────────────────────────────────┘");
         System.out.println();
@@ -287,7 +292,7 @@ public class QueueTicketGenerator {
         System.out.printf("  │  Generated: %-33s │%n", timestamp);
         System.out.println("  └──────────────────────────────────────────────┘");
         
-        if (status.equalsIgnoreCase("waiting")) {
+        if (status == QueueStatus.WAITING) {
             System.out.println();
             System.out.println("  ╔══════════════════════════════════════════════╗");
             System.out.println("  ║                                              ║");
@@ -296,7 +301,7 @@ public class QueueTicketGenerator {
             System.out.println("  ║   Your position in queue: #" + position + "                 ║");
             System.out.println("  ║                                              ║");
             System.out.println("  ╚══════════════════════════════════════════════╝");
-        } else if (status.equalsIgnoreCase("in-progress")) {
+        } else if (status == QueueStatus.IN_PROGRESS) {
             System.out.println();
             System.out.println("  ╔══════════════════════════════════════════════╗");
             System.out.println("  ║                                              ║");
@@ -305,7 +310,7 @@ public class QueueTicketGenerator {
             System.out.println("  ║   Please proceed to the service counter      ║");
             System.out.println("  ║                                              ║");
             System.out.println("  ╚══════════════════════════════════════════════╝");
-        } else if (status.equalsIgnoreCase("completed")) {
+        } else if (status == QueueStatus.COMPLETED) {
             System.out.println();
             System.out.println("  ╔══════════════════════════════════════════════╗");
             System.out.println("  ║                                              ║");
@@ -317,14 +322,14 @@ public class QueueTicketGenerator {
         }
     }
     
-    private static void writeTicketContent(PrintWriter writer, JSONObject queue) {
-        String queueId = queue.optString("queue_id", "N/A");
-        String name = queue.optString("name", "N/A");
-        String serviceType = queue.optString("serviceType", "General");
-        String purpose = queue.optString("purpose", "N/A");
-        int position = queue.optInt("position", 0);
-        String status = queue.optString("status", "waiting");
-        int userId = queue.optInt("user_id", 0);
+    static void writeTicketContent(PrintWriter writer, QueueItem queue) {
+        String queueId = queue.queueId().isEmpty() ? "N/A" : queue.queueId();
+        String name = queue.name();
+        String serviceType = queue.serviceType();
+        String purpose = queue.purpose();
+        int position = queue.position();
+        QueueStatus status = queue.status();
+        int userId = queue.userId();
         
         String timestamp = new SimpleDateFormat("dd MMM yyyy, hh:mm a").format(new Date());
         
@@ -341,7 +346,7 @@ public class QueueTicketGenerator {
         writer.println("  │  QUEUE INFORMATION                           │");
         writer.println("  ├──────────────────────────────────────────────┤");
         writer.printf("  │  Queue Position: #%-26d │%n", position);
-        writer.printf("  │  Status: %-35s │%n", getStatusDisplay(status));
+        writer.printf("  │  Status: %-35s │%n", getStatusDisplay(queue));
         writer.printf("  │  User ID: #%-33d │%n", userId);
         writer.println("  └──────────────────────────────────────────────┘");
         writer.println();
@@ -354,13 +359,13 @@ public class QueueTicketGenerator {
         writer.println("  └──────────────────────────────────────────────┘");
     }
     
-    private static String getStatusDisplay(String status) {
-        switch (status.toLowerCase()) {
-            case "waiting": return "⏳ WAITING";
-            case "in-progress": return "▶️ IN PROGRESS";
-            case "completed": return "✓ COMPLETED";
-            case "cancelled": return "✗ CANCELLED";
-            default: return status.toUpperCase();
+    private static String getStatusDisplay(QueueItem queue) {
+        switch (queue.status()) {
+            case WAITING: return "⏳ WAITING";
+            case IN_PROGRESS: return "▶️ IN PROGRESS";
+            case COMPLETED: return "✓ COMPLETED";
+            case CANCELLED: return "✗ CANCELLED";
+            default: return queue.statusLabel();
         }
     }
     
@@ -376,7 +381,7 @@ public class QueueTicketGenerator {
         URL url = new URL(QUEUE_URL + "/queue/get");
         HttpURLConnection conn = (HttpURLConnection) url.openConnection();
         conn.setRequestMethod("GET");
-        conn.setRequestProperty("Authorization", "Bearer " + token);
+        conn.setRequestProperty("Authorization", "Bearer " + session.token());
         return readResponse(conn);
     }
     
@@ -384,7 +389,7 @@ public class QueueTicketGenerator {
         URL url = new URL(QUEUE_URL + "/queue/get/" + queueId);
         HttpURLConnection conn = (HttpURLConnection) url.openConnection();
         conn.setRequestMethod("GET");
-        conn.setRequestProperty("Authorization", "Bearer " + token);
+        conn.setRequestProperty("Authorization", "Bearer " + session.token());
         return readResponse(conn);
     }
     
@@ -392,7 +397,7 @@ public class QueueTicketGenerator {
         URL url = new URL("http://localhost:5000/admin/queue/all");
         HttpURLConnection conn = (HttpURLConnection) url.openConnection();
         conn.setRequestMethod("GET");
-        conn.setRequestProperty("Authorization", "Bearer " + token);
+        conn.setRequestProperty("Authorization", "Bearer " + session.token());
         return readResponse(conn);
     }
     
@@ -0,0 +1,201 @@
+// RefreshScheduler.java
+import javafx.application.Platform;
+import javafx.beans.value.ChangeListener;
+import javafx.event.EventHandler;
+import javafx.scene.Scene;
+import javafx.scene.input.InputEvent;
+import javafx.stage.Stage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Adaptive background refresh for a screen.
+ * Runs one refresh at a time and only schedules the next once the previous
+ * one has finished, using the interval the screen asks for (e.g. short while
+ * a booking is near the front). A minimised window or an idle user is polled
+ * at a slow rate instead, and consecutive failures back off exponentially.
+ *
+ * Timings can be tuned with queueflex.refresh.* system properties.
+ */
+public class RefreshScheduler {
+
+    private static final long MIN_INTERVAL_MS = Long.getLong("queueflex.refresh.minMs", 2000);
+    private static final long HIDDEN_INTERVAL_MS = Long.getLong("queueflex.refresh.hiddenMs", 60000);
+    private static final long IDLE_INTERVAL_MS = Long.getLong("queueflex.refresh.idleMs", 60000);
+    private static final long IDLE_AFTER_MS = Long.getLong("queueflex.refresh.idleAfterMs", 120000);
+    private static final long MAX_BACKOFF_MS = Long.getLong("queueflex.refresh.maxBackoffMs", 120000);
+
+    private static final ScheduledExecutorService TIMER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "queueflex-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Stage stage;
+    private final Scene scene;
+    // Called on the FX thread; returns a future that completes when the refresh is done
+    private final Supplier<CompletableFuture<?>> refresh;
+    private final LongSupplier preferredInterval;
+
+    private volatile boolean hidden;
+    private volatile long lastActivity = System.currentTimeMillis();
+
+    private boolean running;
+    private int failures;
+    private ScheduledFuture<?> next;
+    private final List<AutoCloseable> closeOnStop = new ArrayList<>();
+    private CompletableFuture<?> current;
+
+    private final ChangeListener<Boolean> visibilityListener = (obs, was, is) -> visibilityChanged();
+    private final ChangeListener<Scene> sceneListener = (obs, was, is) -> sceneChanged(is);
+    private final EventHandler<InputEvent> activityFilter = event -> userActive();
+
+    public RefreshScheduler(Stage stage, Scene scene, Supplier<CompletableFuture<?>> refresh,
+                            LongSupplier preferredInterval) {
+        this.stage = stage;
+        this.scene = scene;
+        this.refresh = refresh;
+        this.preferredInterval = preferredInterval;
+    }
+
+    // Must be called on the FX thread once the scene is on the stage
+    public void start() {
+        synchronized (this) {
+            if (running) {
+                return;
+            }
+            running = true;
+            failures = 0;
+        }
+        hidden = stage.isIconified() || !stage.isShowing();
+        stage.iconifiedProperty().addListener(visibilityListener);
+        stage.showingProperty().addListener(visibilityListener);
+        stage.sceneProperty().addListener(sceneListener);
+        scene.addEventFilter(InputEvent.ANY, activityFilter);
+        scheduleNext();
+    }
+
+    // Stops polling and cancels any refresh in flight; called automatically when the stage switches scenes
+    public void stop() {
+        synchronized (this) {
+            if (!running) {
+                return;
+            }
+            running = false;
+            if (next != null) {
+                next.cancel(false);
+            }
+            if (current != null) {
+                current.cancel(true);
+            }
+        }
+        stage.iconifiedProperty().removeListener(visibilityListener);
+        stage.showingProperty().removeListener(visibilityListener);
+        stage.sceneProperty().removeListener(sceneListener);
+        scene.removeEventFilter(InputEvent.ANY, activityFilter);
+        for (AutoCloseable resource : closeOnStop) {
+            try {
+                resource.close();
+            } catch (Exception ex) {
+                System.err.println("Failed to close " + resource + ": " + ex.getMessage());
+            }
+        }
+        closeOnStop.clear();
+    }
+
+    // Tie a screen resource (e.g. an event subscription) to this scheduler's lifetime
+    public void closeOnStop(AutoCloseable resource) {
+        closeOnStop.add(resource);
+    }
+
+    private synchronized void scheduleNext() {
+        if (!running) {
+            return;
+        }
+        next = TIMER.schedule(() -> Platform.runLater(this::tick), nextDelay(), TimeUnit.MILLISECONDS);
+    }
+
+    // Skip the rest of a long (hidden / idle / backoff) wait when the user is back
+    private synchronized void wakeUp() {
+        if (!running || current != null || next == null) {
+            return;
+        }
+        if (next.getDelay(TimeUnit.MILLISECONDS) > preferredInterval.getAsLong()) {
+            next.cancel(false);
+            next = TIMER.schedule(() -> Platform.runLater(this::tick), 0, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void tick() {
+        CompletableFuture<?> refreshed;
+        synchronized (this) {
+            if (!running || current != null) {
+                return;
+            }
+            try {
+                refreshed = refresh.get();
+            } catch (RuntimeException ex) {
+                refreshed = CompletableFuture.failedFuture(ex);
+            }
+            current = refreshed;
+        }
+        refreshed.whenComplete((value, error) -> completed(error));
+    }
+
+    private void completed(Throwable error) {
+        synchronized (this) {
+            current = null;
+            Throwable cause = error == null ? null : ApiClient.unwrap(error);
+            if (cause == null) {
+                failures = 0;
+            } else if (!(cause instanceof CancellationException)) {
+                failures++;
+            }
+        }
+        scheduleNext();
+    }
+
+    private synchronized long nextDelay() {
+        long interval = Math.max(MIN_INTERVAL_MS, preferredInterval.getAsLong());
+        if (hidden) {
+            interval = Math.max(interval, HIDDEN_INTERVAL_MS);
+        } else if (System.currentTimeMillis() - lastActivity > IDLE_AFTER_MS) {
+            interval = Math.max(interval, IDLE_INTERVAL_MS);
+        }
+        if (failures > 0) {
+            long backoff = interval << Math.min(failures, 16);
+            interval = Math.max(interval, Math.min(MAX_BACKOFF_MS, backoff));
+        }
+        return interval;
+    }
+
+    private void sceneChanged(Scene shown) {
+        if (shown != scene) {
+            stop();
+        }
+    }
+
+    private void visibilityChanged() {
+        hidden = stage.isIconified() || !stage.isShowing();
+        if (!hidden) {
+            wakeUp();
+        }
+    }
+
+    private void userActive() {
+        long now = System.currentTimeMillis();
+        boolean wasIdle = now - lastActivity > IDLE_AFTER_MS;
+        lastActivity = now;
+        if (wasIdle) {
+            wakeUp();
+        }
+    }
+}
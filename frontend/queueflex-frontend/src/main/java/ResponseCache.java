@@ -0,0 +1,110 @@
+// ResponseCache.java
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Small client-side HTTP cache for rarely changing GET responses.
+ * Holds decoded values in a bounded LRU with a freshness TTL and keeps the
+ * ETag / Last-Modified validators so stale entries can be revalidated with a
+ * conditional GET instead of downloading the full body again.
+ *
+ * All methods are synchronized; entries are immutable.
+ */
+public class ResponseCache {
+
+    public static final class Entry {
+        private final Object value;
+        private final String etag;
+        private final String lastModified;
+        private final long expiresAt;
+
+        Entry(Object value, String etag, String lastModified, long expiresAt) {
+            this.value = value;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.expiresAt = expiresAt;
+        }
+
+        @SuppressWarnings("unchecked")
+        public <T> T getValue() {
+            return (T) value;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+
+        public String getLastModified() {
+            return lastModified;
+        }
+
+        public boolean isFresh(long now) {
+            return now < expiresAt;
+        }
+
+        // Same value and validators, new freshness window (after a 304)
+        Entry renew(long expiresAt) {
+            return new Entry(value, etag, lastModified, expiresAt);
+        }
+    }
+
+    private final long ttlMillis;
+    private final Map<String, Entry> entries;
+    // Bumped on every invalidation so responses already in flight are not stored afterwards
+    private long generation;
+
+    public ResponseCache(int maxEntries, Duration ttl) {
+        this.ttlMillis = ttl.toMillis();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public static ResponseCache fromSystemProperties() {
+        int maxEntries = Integer.getInteger("queueflex.cache.maxEntries", 64);
+        long ttlMs = Long.getLong("queueflex.cache.ttlMs", 30000);
+        return new ResponseCache(maxEntries, Duration.ofMillis(ttlMs));
+    }
+
+    public synchronized Entry get(String key) {
+        return entries.get(key);
+    }
+
+    public synchronized long generation() {
+        return generation;
+    }
+
+    // maxAgeSeconds < 0 means the server gave no max-age, so the default TTL applies
+    public synchronized void put(String key, Object value, String etag, String lastModified,
+                                 long maxAgeSeconds, long expectedGeneration) {
+        if (expectedGeneration != generation) {
+            return;
+        }
+        long ttl = maxAgeSeconds >= 0 ? maxAgeSeconds * 1000 : ttlMillis;
+        entries.put(key, new Entry(value, etag, lastModified, System.currentTimeMillis() + ttl));
+    }
+
+    // Like put, a 304 that raced an invalidation is served but not stored back as fresh
+    public synchronized Entry renew(String key, Entry entry, long maxAgeSeconds, long expectedGeneration) {
+        if (expectedGeneration != generation) {
+            return entry;
+        }
+        long ttl = maxAgeSeconds >= 0 ? maxAgeSeconds * 1000 : ttlMillis;
+        Entry renewed = entry.renew(System.currentTimeMillis() + ttl);
+        entries.put(key, renewed);
+        return renewed;
+    }
+
+    public synchronized void clear() {
+        generation++;
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+}
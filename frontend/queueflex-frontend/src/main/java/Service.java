@@ -0,0 +1,38 @@
+// Service.java
+import org.json.*;
+
+/**
+ * A bookable service from the catalog (/services, /services/{id}).
+ */
+public record Service(
+    String serviceId,
+    String name,
+    String description,
+    String category,
+    int maxCapacity,
+    int estimatedTimePerPerson,
+    int currentQueueCount,
+    boolean active
+) {
+
+    public static Service fromJson(JSONObject json) {
+        return new Service(
+            json.optString("service_id", "").intern(),
+            json.optString("name", "Unknown Service"),
+            json.optString("description", ""),
+            json.optString("category", "General").intern(),
+            json.optInt("max_capacity", 50),
+            json.optInt("estimated_time_per_person", 15),
+            json.optInt("current_queue_count", 0),
+            "active".equals(json.optString("status", "active"))
+        );
+    }
+
+    public String statusCode() {
+        return active ? "active" : "inactive";
+    }
+
+    public boolean isFull() {
+        return currentQueueCount >= maxCapacity;
+    }
+}
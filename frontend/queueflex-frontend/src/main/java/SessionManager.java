@@ -0,0 +1,219 @@
+// SessionManager.java
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Base64;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import org.json.*;
+
+/**
+ * Login session shared by the Java clients.
+ * Keeps the current JWT in memory and in an owner-only file on disk, reads
+ * the expiry from the token itself, and re-authenticates in the background
+ * shortly before it runs out (the auth service has no refresh endpoint).
+ * token() never blocks: callers get the current token, or null if there is
+ * no valid session, while any renewal happens off to the side.
+ *
+ * The password is only ever held in memory, so a session restored from
+ * disk is used until it expires and then has to be logged into again.
+ * Location: queueflex.session.dir (default ~/.queueflex/sessions).
+ */
+public class SessionManager {
+
+    public record Session(String account, String token, boolean admin, long expiresAt) {
+        public boolean isValid(long now) {
+            return token != null && now < expiresAt - EXPIRY_SKEW_MS;
+        }
+    }
+
+    @FunctionalInterface
+    public interface Authenticator {
+        // Returns null when the credentials were rejected
+        Session authenticate(String account, String password) throws Exception;
+    }
+
+    private static final long EXPIRY_SKEW_MS = 30000;
+    private static final long DEFAULT_LIFETIME_MS = Long.getLong("queueflex.session.defaultTtlMs", 3600000);
+    // Renew once this fraction of the token's lifetime is left
+    private static final double RENEW_AT_REMAINING = 0.2;
+    private static final long RETRY_MS = 15000;
+
+    private static final ScheduledExecutorService RENEWER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "queueflex-session");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Path file;
+    private final Authenticator authenticator;
+    private volatile Session session;
+    private String password;
+    private ScheduledFuture<?> renewal;
+
+    public SessionManager(String scope, Authenticator authenticator) {
+        String dir = System.getProperty("queueflex.session.dir",
+            Paths.get(System.getProperty("user.home"), ".queueflex", "sessions").toString());
+        this.file = Paths.get(dir, scope + ".session");
+        this.authenticator = authenticator;
+    }
+
+    // Current token, or null when logged out or expired; never blocks
+    public String token() {
+        Session current = session;
+        return current != null && current.isValid(System.currentTimeMillis()) ? current.token() : null;
+    }
+
+    public Session current() {
+        return session;
+    }
+
+    public Session login(String account, String password) throws Exception {
+        Session fresh = authenticator.authenticate(account, password);
+        if (fresh == null) {
+            return null;
+        }
+        synchronized (this) {
+            this.password = password;
+            activate(fresh);
+        }
+        persist(fresh);
+        return fresh;
+    }
+
+    public CompletableFuture<Session> loginAsync(String account, String password) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return login(account, password);
+            } catch (Exception ex) {
+                throw new CompletionException(ex);
+            }
+        }, RENEWER);
+    }
+
+    // Pick up the last session from disk if it is still valid; returns it or null
+    public Session restore() {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try {
+            JSONObject json = new JSONObject(Files.readString(file, StandardCharsets.UTF_8));
+            Session stored = new Session(json.getString("account"), json.getString("token"),
+                json.optBoolean("admin", false), json.getLong("expires_at"));
+            if (!stored.isValid(System.currentTimeMillis())) {
+                Files.deleteIfExists(file);
+                return null;
+            }
+            synchronized (this) {
+                activate(stored);
+            }
+            return stored;
+        } catch (IOException | JSONException ex) {
+            System.err.println("Ignoring unreadable session " + file + ": " + ex.getMessage());
+            return null;
+        }
+    }
+
+    public void logout() {
+        synchronized (this) {
+            session = null;
+            password = null;
+            if (renewal != null) {
+                renewal.cancel(false);
+            }
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ex) {
+            System.err.println("Could not remove session " + file + ": " + ex.getMessage());
+        }
+    }
+
+    // Expiry from the JWT's exp claim; tokens without one get the default lifetime
+    public static long expiresAt(String token) {
+        String[] parts = token.split("\\.");
+        if (parts.length >= 2) {
+            try {
+                JSONObject claims = new JSONObject(new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8));
+                if (claims.has("exp")) {
+                    return claims.getLong("exp") * 1000;
+                }
+            } catch (IllegalArgumentException | JSONException ignored) {
+                // Not a JWT we can read; fall through to the default
+            }
+        }
+        return System.currentTimeMillis() + DEFAULT_LIFETIME_MS;
+    }
+
+    private void activate(Session fresh) {
+        session = fresh;
+        if (renewal != null) {
+            renewal.cancel(false);
+        }
+        long now = System.currentTimeMillis();
+        long lifetime = Math.max(0, fresh.expiresAt() - now);
+        long delay = password != null ? (long) (lifetime * (1 - RENEW_AT_REMAINING)) : lifetime;
+        renewal = RENEWER.schedule(this::renew, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void renew() {
+        String account;
+        String secret;
+        synchronized (this) {
+            Session current = session;
+            if (current == null) {
+                return;
+            }
+            account = current.account();
+            secret = password;
+        }
+        if (secret == null) {
+            // Restored from disk without credentials: nothing to renew with, let it lapse
+            System.err.println("Session for " + account + " expired; log in again");
+            return;
+        }
+        try {
+            if (login(account, secret) != null) {
+                return;
+            }
+            System.err.println("Session renewal for " + account + " was rejected");
+        } catch (Exception ex) {
+            System.err.println("Session renewal for " + account + " failed: " + ex.getMessage());
+        }
+        synchronized (this) {
+            // Keep the current token while it lasts and try again shortly
+            if (session != null && System.currentTimeMillis() < session.expiresAt()) {
+                renewal = RENEWER.schedule(this::renew, RETRY_MS, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    // Written to a temp file with owner-only permissions, then moved into place
+    private void persist(Session stored) {
+        try {
+            Files.createDirectories(file.getParent());
+            Path temp = Files.createTempFile(file.getParent(), "session", ".tmp");
+            if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+                Files.setPosixFilePermissions(temp, PosixFilePermissions.fromString("rw-------"));
+            }
+            JSONObject json = new JSONObject();
+            json.put("account", stored.account());
+            json.put("token", stored.token());
+            json.put("admin", stored.admin());
+            json.put("expires_at", stored.expiresAt());
+            Files.writeString(temp, json.toString(), StandardCharsets.UTF_8);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            System.err.println("Could not save session " + file + ": " + ex.getMessage());
+        }
+    }
+}
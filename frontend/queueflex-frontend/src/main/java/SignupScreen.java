@@ -371,11 +371,9 @@ public class SignupScreen {
         signupButton.setDisable(true);
         signupButton.setText("Creating Account...");
         
-        new Thread(() -> {
-            try {
-                String response = apiClient.signup(name, email, password, isAdmin);
-                
-                javafx.application.Platform.runLater(() -> {
+        apiClient.signupAsync(name, email, password, isAdmin).whenComplete((response, error) -> {
+            javafx.application.Platform.runLater(() -> {
+                if (error == null) {
                     showMessage(messageLabel, "✓ Account created successfully! Redirecting to login...", true);
                     
                     PauseTransition pause = new PauseTransition(Duration.seconds(2));
@@ -384,15 +382,13 @@ public class SignupScreen {
                         loginScreen.show();
                     });
                     pause.play();
-                });
-            } catch (Exception ex) {
-                javafx.application.Platform.runLater(() -> {
-                    showMessage(messageLabel, "⚠ Error: " + ex.getMessage(), false);
+                } else {
+                    showMessage(messageLabel, "⚠ Error: " + ApiClient.unwrap(error).getMessage(), false);
                     signupButton.setDisable(false);
                     signupButton.setText("Create Account");
-                });
-            }
-        }).start();
+                }
+            });
+        });
     }
     
     private void showMessage(Label label, String message, boolean success) {
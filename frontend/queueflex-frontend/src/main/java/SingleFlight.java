@@ -0,0 +1,107 @@
+// SingleFlight.java
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * In-flight request coalescing.
+ * Concurrent callers asking for the same key share one outstanding call and
+ * its decoded result instead of each issuing their own request. Every caller
+ * gets its own future, so one caller cancelling does not affect the others;
+ * the shared call is only cancelled once every caller has given up on it.
+ *
+ * Shared results must be immutable since all callers see the same instance.
+ */
+public class SingleFlight {
+
+    private static final class Call<T> {
+        final CompletableFuture<T> shared = new CompletableFuture<>();
+        int waiters;
+    }
+
+    private final Map<String, Call<?>> calls = new HashMap<>();
+
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> execute(String key, Supplier<CompletableFuture<T>> loader) {
+        Call<T> call;
+        boolean leader = false;
+        synchronized (calls) {
+            call = (Call<T>) calls.get(key);
+            // A finished call may linger until its cleanup callback runs; never join it
+            if (call == null || call.shared.isDone()) {
+                call = new Call<>();
+                calls.put(key, call);
+                leader = true;
+            }
+            call.waiters++;
+        }
+
+        if (leader) {
+            start(key, call, loader);
+        }
+        return subscribe(key, call);
+    }
+
+    private <T> void start(String key, Call<T> call, Supplier<CompletableFuture<T>> loader) {
+        call.shared.whenComplete((value, ex) -> {
+            synchronized (calls) {
+                calls.remove(key, call);
+            }
+        });
+
+        CompletableFuture<T> source;
+        try {
+            source = loader.get();
+        } catch (RuntimeException ex) {
+            call.shared.completeExceptionally(ex);
+            return;
+        }
+        source.whenComplete((value, ex) -> {
+            if (ex != null) {
+                call.shared.completeExceptionally(ex);
+            } else {
+                call.shared.complete(value);
+            }
+        });
+        call.shared.whenComplete((value, ex) -> {
+            if (call.shared.isCancelled()) {
+                source.cancel(true);
+            }
+        });
+    }
+
+    private <T> CompletableFuture<T> subscribe(String key, Call<T> call) {
+        CompletableFuture<T> view = new CompletableFuture<>();
+        call.shared.whenComplete((value, ex) -> {
+            if (ex != null) {
+                view.completeExceptionally(ex);
+            } else {
+                view.complete(value);
+            }
+        });
+        view.whenComplete((value, ex) -> {
+            if (!view.isCancelled()) {
+                return;
+            }
+            boolean abandoned;
+            synchronized (calls) {
+                abandoned = --call.waiters == 0;
+                if (abandoned) {
+                    calls.remove(key, call);
+                }
+            }
+            if (abandoned) {
+                call.shared.cancel(true);
+            }
+        });
+        return view;
+    }
+
+    // Number of distinct calls currently outstanding
+    public int inFlight() {
+        synchronized (calls) {
+            return calls.size();
+        }
+    }
+}
@@ -0,0 +1,186 @@
+// SnapshotCache.java
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * On-disk snapshot of the last known service catalog and queue listing.
+ * Screens render it immediately at startup and then revalidate against the
+ * live services, so a cold start shows useful (if slightly stale) data
+ * without waiting on the network.
+ *
+ * Snapshots are a compact binary file per account and screen, written to a
+ * temp file and atomically moved into place, and read back through a
+ * memory-mapped buffer. A missing, foreign or corrupt file is just a miss.
+ * Location: queueflex.snapshot.dir (default ~/.queueflex/snapshots).
+ */
+public class SnapshotCache {
+
+    public record Snapshot(long savedAt, List<Service> services, List<QueueItem> queue) {
+    }
+
+    private static final int MAGIC = 0x51465331; // "QFS1"
+    private static final int VERSION = 2;
+    // Smallest encoded record (all strings empty), used to bound counts read from the file
+    private static final int SERVICE_MIN_BYTES = 4 * 4 + 3 * 4 + 1;
+    private static final int QUEUE_ITEM_MIN_BYTES = 6 * 4 + 2 * 4 + 8;
+
+    private final Path directory;
+
+    public SnapshotCache(Path directory) {
+        this.directory = directory;
+    }
+
+    public static SnapshotCache fromSystemProperties() {
+        String dir = System.getProperty("queueflex.snapshot.dir",
+            Paths.get(System.getProperty("user.home"), ".queueflex", "snapshots").toString());
+        return new SnapshotCache(Paths.get(dir));
+    }
+
+    // null when there is no usable snapshot
+    public Snapshot load(String scope, String account) {
+        Path file = fileFor(scope, account);
+        if (file == null || !Files.isRegularFile(file)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                return null;
+            }
+            long savedAt = buffer.getLong();
+
+            int serviceCount = readCount(buffer, SERVICE_MIN_BYTES);
+            List<Service> services = new ArrayList<>(serviceCount);
+            for (int i = 0; i < serviceCount; i++) {
+                services.add(new Service(readString(buffer), readString(buffer), readString(buffer),
+                    readString(buffer), buffer.getInt(), buffer.getInt(), buffer.getInt(), buffer.get() != 0));
+            }
+
+            int queueCount = readCount(buffer, QUEUE_ITEM_MIN_BYTES);
+            List<QueueItem> queue = new ArrayList<>(queueCount);
+            for (int i = 0; i < queueCount; i++) {
+                String queueId = readString(buffer);
+                int userId = buffer.getInt();
+                String serviceId = readString(buffer).intern();
+                String name = readString(buffer);
+                String purpose = readString(buffer);
+                String serviceType = readString(buffer).intern();
+                int position = buffer.getInt();
+                String statusCode = readString(buffer).intern();
+                queue.add(new QueueItem(queueId, userId, serviceId, name, purpose, serviceType, position,
+                    QueueStatus.fromCode(statusCode), statusCode, buffer.getLong()));
+            }
+            return new Snapshot(savedAt, List.copyOf(services), List.copyOf(queue));
+        } catch (IOException | BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException ex) {
+            System.err.println("Ignoring unreadable snapshot " + file + ": " + ex.getMessage());
+            return null;
+        }
+    }
+
+    public synchronized void save(String scope, String account, List<Service> services, List<QueueItem> queue) {
+        Path file = fileFor(scope, account);
+        if (file == null) {
+            return;
+        }
+        Path temp = null;
+        try {
+            Files.createDirectories(directory);
+            temp = Files.createTempFile(directory, scope, ".tmp");
+            try (OutputStream os = Files.newOutputStream(temp);
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(os, 64 * 1024))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(System.currentTimeMillis());
+
+                out.writeInt(services.size());
+                for (Service service : services) {
+                    writeString(out, service.serviceId());
+                    writeString(out, service.name());
+                    writeString(out, service.description());
+                    writeString(out, service.category());
+                    out.writeInt(service.maxCapacity());
+                    out.writeInt(service.estimatedTimePerPerson());
+                    out.writeInt(service.currentQueueCount());
+                    out.writeByte(service.active() ? 1 : 0);
+                }
+
+                out.writeInt(queue.size());
+                for (QueueItem item : queue) {
+                    writeString(out, item.queueId());
+                    out.writeInt(item.userId());
+                    writeString(out, item.serviceId());
+                    writeString(out, item.name());
+                    writeString(out, item.purpose());
+                    writeString(out, item.serviceType());
+                    out.writeInt(item.position());
+                    writeString(out, item.statusCode());
+                    out.writeLong(item.createdAt());
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            System.err.println("Could not save snapshot " + file + ": " + ex.getMessage());
+        } finally {
+            // Already gone after a successful move; otherwise don't leave a partial file behind
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+
+    // Snapshots hold personal data, so each account gets its own file (named by a hash, not the email)
+    private Path fileFor(String scope, String account) {
+        if (account == null) {
+            return null;
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(account.getBytes(StandardCharsets.UTF_8));
+            return directory.resolve(scope + "-" + HexFormat.of().formatHex(digest, 0, 8) + ".snap");
+        } catch (NoSuchAlgorithmException ex) {
+            return null;
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = (value == null ? "" : value).getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static int readCount(MappedByteBuffer buffer, int minRecordBytes) {
+        int count = buffer.getInt();
+        if (count < 0 || count > buffer.remaining() / minRecordBytes) {
+            throw new IllegalArgumentException("corrupt record count " + count);
+        }
+        return count;
+    }
+
+    private static String readString(MappedByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IllegalArgumentException("corrupt string length " + length);
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
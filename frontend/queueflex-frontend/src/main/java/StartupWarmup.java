@@ -0,0 +1,112 @@
+// StartupWarmup.java
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+/**
+ * Named startup phases run in parallel behind the splash screen.
+ * Each phase is timed; a phase that fails or overruns the deadline is
+ * recorded as such but never holds up the app. Timings are printed and
+ * appended to a CSV (queueflex.startup.log, default
+ * ~/.queueflex/startup-timings.csv) so cold-start regressions show up.
+ */
+public class StartupWarmup {
+
+    public record Phase(String name, long millis, boolean ok) {
+    }
+
+    @FunctionalInterface
+    public interface Task {
+        void run() throws Exception;
+    }
+
+    private static final long PHASE_TIMEOUT_MS = Long.getLong("queueflex.startup.timeoutMs", 5000);
+
+    private final Map<String, Task> tasks = new LinkedHashMap<>();
+
+    public StartupWarmup add(String name, Task task) {
+        tasks.put(name, task);
+        return this;
+    }
+
+    public int size() {
+        return tasks.size();
+    }
+
+    /**
+     * Start every phase on its own daemon thread (phases block on I/O, and must
+     * not starve the shared API executor the HTTP clients run on). progress
+     * receives (phases finished, name of the phase that just finished).
+     */
+    public CompletableFuture<List<Phase>> run(BiConsumer<Integer, String> progress) {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, tasks.size()), runnable -> {
+            Thread thread = new Thread(runnable, "queueflex-warmup");
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger finished = new AtomicInteger();
+        List<CompletableFuture<Phase>> phases = new ArrayList<>();
+        for (Map.Entry<String, Task> entry : tasks.entrySet()) {
+            String name = entry.getKey();
+            long started = System.nanoTime();
+            CompletableFuture<Phase> phase = CompletableFuture.runAsync(() -> {
+                try {
+                    entry.getValue().run();
+                } catch (Exception ex) {
+                    throw new RuntimeException(ex);
+                }
+            }, executor)
+                .orTimeout(PHASE_TIMEOUT_MS, TimeUnit.MILLISECONDS)
+                .handle((ignored, error) -> {
+                    if (error != null) {
+                        System.err.println("Startup phase '" + name + "' failed: " + ApiClient.unwrap(error));
+                    }
+                    return new Phase(name, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started), error == null);
+                });
+            phase.thenAccept(done -> progress.accept(finished.incrementAndGet(), name));
+            phases.add(phase);
+        }
+
+        return CompletableFuture.allOf(phases.toArray(new CompletableFuture<?>[0]))
+            .whenComplete((ignored, error) -> executor.shutdown())
+            .thenApply(ignored -> phases.stream().map(CompletableFuture::join).toList());
+    }
+
+    // One CSV row per launch: timestamp,total,<phase>=<ms>[!],...  (! marks a failed phase)
+    public static void record(List<Phase> phases, long totalMillis) {
+        StringBuilder line = new StringBuilder(Instant.now().toString()).append(',').append(totalMillis);
+        StringBuilder summary = new StringBuilder("Startup ").append(totalMillis).append("ms:");
+        for (Phase phase : phases) {
+            String value = phase.millis() + (phase.ok() ? "" : "!");
+            line.append(',').append(phase.name()).append('=').append(value);
+            summary.append(' ').append(phase.name()).append('=').append(value).append("ms");
+        }
+        System.out.println(summary);
+
+        Path log = Paths.get(System.getProperty("queueflex.startup.log",
+            Paths.get(System.getProperty("user.home"), ".queueflex", "startup-timings.csv").toString()));
+        try {
+            if (log.getParent() != null) {
+                Files.createDirectories(log.getParent());
+            }
+            Files.writeString(log, line.append('\n'), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException ex) {
+            System.err.println("Could not record startup timings: " + ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,90 @@
+// ApiClientConcurrencyTest.java
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Streamed and regular requests in flight together must all complete, even
+ * with the API pool at two threads (surefire sets queueflex.api.threads=2).
+ */
+class ApiClientConcurrencyTest {
+
+    private static final int BOOKINGS = 5000;
+    private static final long TIMEOUT_SECONDS = 30;
+
+    private static MockBackend backend;
+    private static ApiClient client;
+
+    @BeforeAll
+    static void startBackend() throws Exception {
+        Map<ApiTransport.Service, ApiTransport.Endpoint> endpoints = new EnumMap<>(ApiTransport.Service.class);
+        for (ApiTransport.Service service : ApiTransport.Service.values()) {
+            endpoints.put(service, new ApiTransport.Endpoint("http://localhost:" + freePort(),
+                Duration.ofSeconds(3), Duration.ofSeconds(10)));
+        }
+        ApiTransport transport = new ApiTransport(endpoints);
+
+        MockBackend.Config defaults = MockBackend.Config.fromSystemProperties();
+        backend = new MockBackend(new MockBackend.Config(20, 10, BOOKINGS, defaults.purposeChars(), 42,
+            true, defaults.tokenTtlSeconds(), defaults.latency(), defaults.errorRate()));
+        backend.start(transport);
+
+        client = new ApiClient(transport);
+        assertTrue(client.login("admin@queueflex.test", "password"));
+    }
+
+    @AfterAll
+    static void stopBackend() {
+        if (backend != null) {
+            backend.close();
+        }
+    }
+
+    @Test
+    void streamedAndRegularRequestsCompleteTogether() throws Exception {
+        for (int round = 0; round < 3; round++) {
+            AtomicInteger streamedA = new AtomicInteger();
+            AtomicInteger streamedB = new AtomicInteger();
+            QueueStore store = client.newAllQueuesStore();
+
+            CompletableFuture<Integer> streamA = client.streamAllQueuesAsync(item -> streamedA.incrementAndGet());
+            CompletableFuture<Integer> streamB = client.streamAllQueuesAsync(item -> streamedB.incrementAndGet());
+            CompletableFuture<List<QueueItem>> all = client.getAllQueuesAsync();
+            CompletableFuture<QueueStore.Change> synced = store.sync();
+            CompletableFuture<List<Service>> services = client.getServicesAsync();
+            CompletableFuture<QueueStats> stats = client.getQueueStatsAsync();
+
+            CompletableFuture.allOf(streamA, streamB, all, synced, services, stats)
+                .get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+            assertEquals(BOOKINGS, streamA.join());
+            assertEquals(BOOKINGS, streamedA.get());
+            assertEquals(BOOKINGS, streamB.join());
+            assertEquals(BOOKINGS, streamedB.get());
+            assertEquals(BOOKINGS, all.join().size());
+            assertEquals(BOOKINGS, store.size());
+            assertFalse(services.join().isEmpty());
+            assertNotNull(stats.join());
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}